@@ -0,0 +1,59 @@
+package org.eam.tinybank.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.eam.tinybank.domain.AccountEntity;
+import org.eam.tinybank.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures balance arithmetic of {@link AccountEntity}, which creates a new instance per operation, and conversion of
+ * a request amount to minor units, which is done once per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountEntityBenchmark {
+
+    private final BigDecimal requestAmount = new BigDecimal("12.34");
+    private final long amount = 1234;
+    private AccountEntity account;
+
+    @Setup
+    public void setUp() {
+        account = AccountEntity.from("test@test.com").deposited(100_000);
+    }
+
+    @Benchmark
+    public AccountEntity deposited() {
+        return account.deposited(amount);
+    }
+
+    @Benchmark
+    public AccountEntity withdrawed() {
+        return account.withdrawed(amount);
+    }
+
+    @Benchmark
+    public boolean canWithdraw() {
+        return account.canWithdraw(amount);
+    }
+
+    @Benchmark
+    public long toMinor() {
+        return Money.toMinor(requestAmount);
+    }
+
+}
\ No newline at end of file
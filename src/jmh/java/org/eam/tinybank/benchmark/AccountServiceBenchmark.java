@@ -0,0 +1,105 @@
+package org.eam.tinybank.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.eam.tinybank.TinyBankApplication;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.CreateAccountRequest;
+import org.eam.tinybank.api.CreateUserRequest;
+import org.eam.tinybank.api.DepositRequest;
+import org.eam.tinybank.api.TransferRequest;
+import org.eam.tinybank.api.WithdrawRequest;
+import org.eam.tinybank.service.AccountService;
+import org.eam.tinybank.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures account operations through {@link AccountService} against embedded H2, without the web layer. Every thread
+ * works with its own accounts, so there is no lock contention, see {@code LockingStrategyBenchmarkIT} for that.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        private ConfigurableApplicationContext context;
+        private AccountService accountService;
+        private UserService userService;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = new SpringApplicationBuilder(TinyBankApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.hibernate.ddl-auto=create-drop", "logging.level.root=WARN")
+                .run();
+            accountService = context.getBean(AccountService.class);
+            userService = context.getBean(UserService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class Accounts {
+
+        private final BigDecimal amount = BigDecimal.ONE;
+        private String email1;
+        private String email2;
+
+        @Setup(Level.Trial)
+        public void create(Application application) {
+            email1 = created(application, "1");
+            email2 = created(application, "2");
+            application.accountService.deposit(new DepositRequest(email1, BigDecimal.valueOf(1_000_000_000)));
+            application.accountService.deposit(new DepositRequest(email2, BigDecimal.valueOf(1_000_000_000)));
+        }
+
+        private String created(Application application, String suffix) {
+            var email = "%s-%s@test.com".formatted(Thread.currentThread().getId(), suffix);
+            application.userService.create(new CreateUserRequest("test", "test", email));
+            application.accountService.create(new CreateAccountRequest(email));
+            return email;
+        }
+
+    }
+
+    @Benchmark
+    public ApiResponse deposit(Application application, Accounts accounts) {
+        return application.accountService.deposit(new DepositRequest(accounts.email1, accounts.amount));
+    }
+
+    @Benchmark
+    public ApiResponse withdraw(Application application, Accounts accounts) {
+        return application.accountService.withdraw(new WithdrawRequest(accounts.email1, accounts.amount));
+    }
+
+    @Benchmark
+    public ApiResponse transfer(Application application, Accounts accounts) {
+        return application.accountService.transfer(
+            new TransferRequest(accounts.email1, accounts.email2, accounts.amount));
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package org.eam.tinybank.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.eam.tinybank.api.ApiResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures message formatting in {@link ApiResponse} factories, which is done for every response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ApiResponseBenchmark {
+
+    private final long balance = 123_456;
+    private final String email = "test@test.com";
+
+    @Benchmark
+    public ApiResponse deposited() {
+        return ApiResponse.deposited(balance);
+    }
+
+    @Benchmark
+    public ApiResponse transferred() {
+        return ApiResponse.transferred(email, email);
+    }
+
+    @Benchmark
+    public ApiResponse insufficientFunds() {
+        return ApiResponse.insufficientFunds(email);
+    }
+
+}
\ No newline at end of file
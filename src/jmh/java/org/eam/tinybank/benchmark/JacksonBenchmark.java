@@ -0,0 +1,50 @@
+package org.eam.tinybank.benchmark;
+
+import static org.eam.tinybank.util.Jackson.MAPPER;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.DepositRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures request deserialization and response serialization with the shared {@code Jackson.MAPPER}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JacksonBenchmark {
+
+    private final ApiResponse response = ApiResponse.deposited(123_456);
+    private byte[] request;
+
+    @Setup
+    public void setUp() throws IOException {
+        request = MAPPER.writeValueAsBytes(new DepositRequest("test@test.com", new BigDecimal("12.34")));
+    }
+
+    @Benchmark
+    public DepositRequest readRequest() throws IOException {
+        return MAPPER.readValue(request, DepositRequest.class);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return MAPPER.writeValueAsBytes(response);
+    }
+
+}
\ No newline at end of file
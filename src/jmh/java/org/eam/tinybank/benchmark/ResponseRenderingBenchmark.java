@@ -0,0 +1,107 @@
+package org.eam.tinybank.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.ApiResponseSerializer;
+import org.eam.tinybank.api.ResponseFormat;
+import org.eam.tinybank.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares creating and writing a response to a reused output buffer, in both {@link ResponseFormat}s, with the former
+ * way: a message formatted in the factory, and a record serialized by Jackson reflection. Run with the 'gc' profiler,
+ * as configured in the 'jmh' profile, to see bytes allocated per response in 'gc.alloc.rate.norm'.
+ * <p>
+ * Example on a single CPU, ns and bytes per response, where about 370 bytes are the generator itself: deposited:
+ * legacy=786ns/984B, message=311ns/488B, structured=359ns/488B; insufficientFunds: legacy=685ns/744B,
+ * message=374ns/416B, structured=380ns/416B; userCreated: legacy=412ns/392B, message=303ns/368B, structured=350ns/368B
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResponseRenderingBenchmark {
+
+    private static final ObjectMapper LEGACY = new ObjectMapper();
+    private static final ObjectMapper MESSAGE = new ObjectMapper()
+        .registerModule(ApiResponseSerializer.module(ResponseFormat.MESSAGE));
+    private static final ObjectMapper STRUCTURED = new ObjectMapper()
+        .registerModule(ApiResponseSerializer.module(ResponseFormat.STRUCTURED));
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+    private final long balance = 123_456;
+    private final String email = "test@test.com";
+
+    @Benchmark
+    public int depositedLegacy() throws IOException {
+        return write(LEGACY, new LegacyResponse("Account was deposited: balance=%s".formatted(
+            Money.toMajor(balance).toPlainString()), "SUCCESS"));
+    }
+
+    @Benchmark
+    public int depositedMessage() throws IOException {
+        return write(MESSAGE, ApiResponse.deposited(balance));
+    }
+
+    @Benchmark
+    public int depositedStructured() throws IOException {
+        return write(STRUCTURED, ApiResponse.deposited(balance));
+    }
+
+    @Benchmark
+    public int insufficientFundsLegacy() throws IOException {
+        return write(LEGACY, new LegacyResponse("Insufficient funds: %s".formatted(email), "FAILED"));
+    }
+
+    @Benchmark
+    public int insufficientFundsMessage() throws IOException {
+        return write(MESSAGE, ApiResponse.insufficientFunds(email));
+    }
+
+    @Benchmark
+    public int insufficientFundsStructured() throws IOException {
+        return write(STRUCTURED, ApiResponse.insufficientFunds(email));
+    }
+
+    @Benchmark
+    public int userCreatedLegacy() throws IOException {
+        return write(LEGACY, new LegacyResponse("User was created", "SUCCESS"));
+    }
+
+    @Benchmark
+    public int userCreatedMessage() throws IOException {
+        return write(MESSAGE, ApiResponse.userCreated());
+    }
+
+    @Benchmark
+    public int userCreatedStructured() throws IOException {
+        return write(STRUCTURED, ApiResponse.userCreated());
+    }
+
+    private int write(ObjectMapper mapper, Object response) throws IOException {
+        out.reset();
+        mapper.writeValue(out, response);
+        return out.size();
+    }
+
+    /**
+     * Response as it was before typed details
+     */
+    public record LegacyResponse(String message, String status) {
+
+    }
+
+}
\ No newline at end of file
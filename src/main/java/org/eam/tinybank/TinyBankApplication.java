@@ -2,13 +2,13 @@ package org.eam.tinybank;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-// TODO move annotations to config, when created
-@SpringBootApplication
-@EnableJpaRepositories
-@EnableTransactionManagement
+/**
+ * R2DBC connection factory is not auto-configured, since its presence disables JDBC data source, see
+ * {@code ReactiveConfiguration}.
+ */
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class TinyBankApplication {
 
     public static void main(String[] args) {
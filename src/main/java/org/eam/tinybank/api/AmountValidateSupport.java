@@ -1,6 +1,7 @@
 package org.eam.tinybank.api;
 
 import java.math.BigDecimal;
+import org.eam.tinybank.domain.Money;
 
 /**
  * Provides amount checks for implementing classes.
@@ -9,8 +10,18 @@ public interface AmountValidateSupport {
 
     BigDecimal amount();
 
+    /**
+     * Returns 'true' if the amount is positive, and can be converted to minor units without rounding.
+     */
     default boolean validAmount() {
-        return amount().compareTo(BigDecimal.ZERO) > 0;
+        return amount().signum() > 0 && Money.fits(amount());
+    }
+
+    /**
+     * Returns the amount in minor units, so it must be valid.
+     */
+    default long minorAmount() {
+        return Money.toMinor(amount());
     }
 
 }
\ No newline at end of file
@@ -2,84 +2,225 @@ package org.eam.tinybank.api;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.stream.Collectors;
 import lombok.NonNull;
+import org.eam.tinybank.api.ResponseDetails.Amount;
+import org.eam.tinybank.api.ResponseDetails.Balance;
+import org.eam.tinybank.api.ResponseDetails.BatchCounts;
+import org.eam.tinybank.api.ResponseDetails.BatchSize;
+import org.eam.tinybank.api.ResponseDetails.History;
+import org.eam.tinybank.api.ResponseDetails.None;
+import org.eam.tinybank.api.ResponseDetails.Transfer;
+import org.eam.tinybank.api.ResponseDetails.Value;
 import org.eam.tinybank.domain.HistoryEntity;
+import org.eam.tinybank.domain.Money;
 import org.springframework.http.HttpStatus;
 
 /**
- * Encapsulates the result of endpoint calls. NOTE that it is expected that class instances are created via factory
- * methods, rather that constructor calls. Right now all possible responses are defined here, but later may be divided
- * into domain related subclasses, e.g. {@code UserApiResponse}.
+ * Encapsulates the result of endpoint calls, as its kind and typed details, so nothing is formatted until the response
+ * is written, see {@link ApiResponseSerializer}. The message is only built on demand, e.g. in compatibility mode. NOTE
+ * that it is expected that class instances are created via factory methods, rather that constructor calls. Right now
+ * all possible responses are defined here, but later may be divided into domain related subclasses, e.g.
+ * {@code UserApiResponse}.
  */
-public record ApiResponse(@NonNull String message, @NonNull Status status) {
+public record ApiResponse(@NonNull Kind kind, @NonNull Status status, @NonNull Reason reason,
+                          @NonNull ResponseDetails details) {
+
+    private static final String FROM = "from=";
+    private static final String TO = ", to=";
+    private static final ApiResponse USER_CREATED = new ApiResponse(Kind.USER_CREATED);
+    private static final ApiResponse ACCOUNT_CREATED = new ApiResponse(Kind.ACCOUNT_CREATED);
+    private static final ApiResponse USER_EXISTS = new ApiResponse(Kind.USER_EXISTS);
+    private static final ApiResponse ACCOUNT_EXISTS = new ApiResponse(Kind.ACCOUNT_EXISTS);
+    private static final ApiResponse DEACTIVATED = new ApiResponse(Kind.DEACTIVATED);
+    private static final ApiResponse INACTIVE = new ApiResponse(Kind.INACTIVE);
+    private static final ApiResponse INVALID_BATCH_ITEM = new ApiResponse(Kind.INVALID_BATCH_ITEM);
+    private static final ApiResponse NOT_APPLIED = new ApiResponse(Kind.NOT_APPLIED);
+    private static final ApiResponse ATOMIC_BATCH_UNSUPPORTED = new ApiResponse(Kind.ATOMIC_BATCH_UNSUPPORTED);
+    private static final ApiResponse OVERLOADED = new ApiResponse(Kind.OVERLOADED);
+
+    private ApiResponse(@NonNull Kind kind, @NonNull ResponseDetails details) {
+        this(kind, kind.status, kind.reason, details);
+    }
+
+    private ApiResponse(@NonNull Kind kind) {
+        this(kind, ResponseDetails.NONE);
+    }
 
     public static ApiResponse userCreated() {
-        return new ApiResponse("User was created", Status.SUCCESS);
+        return USER_CREATED;
     }
 
     public static ApiResponse accountCreated() {
-        return new ApiResponse("Account was created", Status.SUCCESS);
+        return ACCOUNT_CREATED;
     }
 
     public static ApiResponse userExists() {
-        return new ApiResponse("User exists", Status.SUCCESS);
+        return USER_EXISTS;
     }
 
     public static ApiResponse accountExists() {
-        return new ApiResponse("Account exists", Status.SUCCESS);
+        return ACCOUNT_EXISTS;
     }
 
     public static ApiResponse deactivated() {
-        return new ApiResponse("User was deactivated", Status.SUCCESS);
+        return DEACTIVATED;
     }
 
-    public static ApiResponse deposited(@NonNull BigDecimal balance) {
-        return new ApiResponse("Account was deposited: balance=%s".formatted(balance.toPlainString()), Status.SUCCESS);
+    public static ApiResponse deposited(long balance) {
+        return new ApiResponse(Kind.DEPOSITED, new Balance(balance));
     }
 
-    public static ApiResponse withdrawed(@NonNull BigDecimal balance) {
-        return new ApiResponse("Account was withdrawed: balance=%s".formatted(balance.toPlainString()), Status.SUCCESS);
+    public static ApiResponse withdrawed(long balance) {
+        return new ApiResponse(Kind.WITHDRAWED, new Balance(balance));
     }
 
     public static ApiResponse transferred(@NonNull String emailFrom, @NonNull String emailTo) {
-        return new ApiResponse("Funds transferred: from=%s, to=%s".formatted(emailFrom, emailTo), Status.SUCCESS);
+        return new ApiResponse(Kind.TRANSFERRED, new Transfer(emailFrom, emailTo));
     }
 
     public static ApiResponse userNotFound(@NonNull String email) {
-        return new ApiResponse("User not found: email=%s".formatted(email), Status.FAILED);
+        return new ApiResponse(Kind.USER_NOT_FOUND, new Value(email));
     }
 
     public static ApiResponse accountNotFound(@NonNull String email) {
-        return new ApiResponse("Account not found: email=%s".formatted(email), Status.FAILED);
+        return new ApiResponse(Kind.ACCOUNT_NOT_FOUND, new Value(email));
     }
 
     public static ApiResponse inactive() {
-        return new ApiResponse("User is inactive", Status.FAILED);
+        return INACTIVE;
     }
 
-    public static ApiResponse balance(@NonNull BigDecimal balance) {
-        return new ApiResponse("Balance: %s".formatted(balance.toPlainString()), Status.SUCCESS);
+    public static ApiResponse balance(long balance) {
+        return new ApiResponse(Kind.BALANCE, new Balance(balance));
     }
 
     public static ApiResponse invalidEmail(@NonNull String email) {
-        return new ApiResponse("Invalid email: %s".formatted(email), Status.FAILED);
+        return new ApiResponse(Kind.INVALID_EMAIL, new Value(email));
     }
 
     public static ApiResponse invalidAmount(@NonNull BigDecimal amount) {
-        return new ApiResponse("Invalid amount: %s".formatted(amount), Status.FAILED);
+        return new ApiResponse(Kind.INVALID_AMOUNT, new Amount(amount));
     }
 
     public static ApiResponse insufficientFunds(@NonNull String email) {
-        return new ApiResponse("Insufficient funds: %s".formatted(email), Status.FAILED);
+        return new ApiResponse(Kind.INSUFFICIENT_FUNDS, new Value(email));
     }
 
     public static ApiResponse history(List<HistoryEntity> operations) {
-        return new ApiResponse("History: %s".formatted(operations.stream().map(HistoryEntity::asString).toList()),
-                               Status.SUCCESS);
+        return history(operations, null);
+    }
+
+    /**
+     * Returns a page of history, with a cursor to the next page, if any.
+     */
+    public static ApiResponse history(List<HistoryEntity> operations, String cursor) {
+        return historyEntries(operations.stream().map(HistoryEntry::from).toList(), cursor);
+    }
+
+    /**
+     * Same as {@link #history(List, String)}, but for detached entries.
+     */
+    public static ApiResponse historyEntries(List<HistoryEntry> entries, String cursor) {
+        return new ApiResponse(Kind.HISTORY, new History(entries, cursor));
+    }
+
+    public static ApiResponse invalidCursor(@NonNull String cursor) {
+        return new ApiResponse(Kind.INVALID_CURSOR, new Value(cursor));
+    }
+
+    public static ApiResponse invalidBatchItem() {
+        return INVALID_BATCH_ITEM;
+    }
+
+    public static ApiResponse batchTooLarge(int size) {
+        return new ApiResponse(Kind.BATCH_TOO_LARGE, new BatchSize(size, BatchRequest.MAX_ITEMS));
+    }
+
+    public static ApiResponse notApplied() {
+        return NOT_APPLIED;
+    }
+
+    public static ApiResponse atomicBatchUnsupported() {
+        return ATOMIC_BATCH_UNSUPPORTED;
+    }
+
+    public static ApiResponse batchApplied(int succeeded, int failed) {
+        return new ApiResponse(Kind.BATCH_APPLIED, new BatchCounts(succeeded, failed));
+    }
+
+    public static ApiResponse batchRejected(int failed) {
+        return new ApiResponse(Kind.BATCH_REJECTED, new BatchCounts(0, failed));
+    }
+
+    public static ApiResponse invalidIdempotencyKey(@NonNull String key) {
+        return new ApiResponse(Kind.INVALID_IDEMPOTENCY_KEY, new Value(key));
+    }
+
+    public static ApiResponse idempotencyKeyReused(@NonNull String key) {
+        return new ApiResponse(Kind.IDEMPOTENCY_KEY_REUSED, new Value(key));
+    }
+
+    /**
+     * Recreates a stored response, where outcome is the one returned by {@link #outcome()}. Details are parsed back from
+     * the message, when the kind has no more than one value, otherwise the response keeps only the message.
+     */
+    public static ApiResponse restored(Kind kind, @NonNull String message, @NonNull String outcome,
+                                       @NonNull Reason reason) {
+        var status = Status.valueOf(outcome);
+        if (kind == null || !message.startsWith(kind.text)) {
+            return new ApiResponse(Kind.RESTORED, status, reason, new Value(message));
+        }
+
+        var value = message.substring(kind.text.length());
+        return switch (kind) {
+            case DEPOSITED, WITHDRAWED, BALANCE ->
+                new ApiResponse(kind, status, reason, new Balance(Money.toMinor(new BigDecimal(value))));
+            case INVALID_AMOUNT -> new ApiResponse(kind, status, reason, new Amount(new BigDecimal(value)));
+            case TRANSFERRED -> {
+                var to = value.lastIndexOf(TO);
+                yield value.startsWith(FROM) && to > 0
+                    ? new ApiResponse(kind, status, reason, new Transfer(value.substring(FROM.length(), to),
+                                                                         value.substring(to + TO.length())))
+                    : new ApiResponse(Kind.RESTORED, status, reason, new Value(message));
+            }
+            default -> kind.field != null ? new ApiResponse(kind, status, reason, new Value(value))
+                : value.isEmpty() ? new ApiResponse(kind, status, reason, ResponseDetails.NONE)
+                : new ApiResponse(Kind.RESTORED, status, reason, new Value(message));
+        };
+    }
+
+    public static ApiResponse overloaded() {
+        return OVERLOADED;
     }
 
     public static ApiResponse error(@NonNull Throwable exception) {
-        return new ApiResponse(exception.getMessage(), Status.ERROR);
+        return new ApiResponse(Kind.ERROR, new Value(exception.getMessage()));
+    }
+
+    /**
+     * Formats the message, as it's returned in compatibility mode.
+     */
+    public String message() {
+        return switch (details) {
+            case None ignored -> kind.text;
+            case Balance(var balance) -> kind.text + Money.toMajor(balance).toPlainString();
+            case Amount(var amount) -> kind.text + amount;
+            case Value(var value) -> kind.text + value;
+            case Transfer(var from, var to) -> kind.text + FROM + from + TO + to;
+            case BatchSize(var size, var max) -> "Batch is too large: size=%s, max=%s".formatted(size, max);
+            case BatchCounts(var succeeded, var failed) -> kind == Kind.BATCH_APPLIED
+                ? "Batch applied: succeeded=%s, failed=%s".formatted(succeeded, failed)
+                : "Batch rejected: failed=%s".formatted(failed);
+            case History(var entries, var cursor) -> {
+                var operations = entries.stream()
+                    .map(HistoryEntry::asString)
+                    .collect(Collectors.joining(", ", "[", "]"));
+                yield cursor == null
+                    ? kind.text + operations
+                    : "%s%s, cursor=%s".formatted(kind.text, operations, cursor);
+            }
+        };
     }
 
     /**
@@ -93,7 +234,18 @@ public record ApiResponse(@NonNull String message, @NonNull Status status) {
         };
     }
 
-    private enum Status {
+    public boolean failed() {
+        return status != Status.SUCCESS;
+    }
+
+    /**
+     * Returns the name of response status, e.g. to tag metrics.
+     */
+    public String outcome() {
+        return status.name();
+    }
+
+    enum Status {
         /**
          * Request processed successfully
          */
@@ -108,4 +260,76 @@ public record ApiResponse(@NonNull String message, @NonNull Status status) {
         ERROR
     }
 
+    /**
+     * Kind of the result, with its status and reason, and the message text, or its beginning, followed by the value of
+     * the named field, if any.
+     */
+    public enum Kind {
+        USER_CREATED(Status.SUCCESS, Reason.NONE, "User was created"),
+        ACCOUNT_CREATED(Status.SUCCESS, Reason.NONE, "Account was created"),
+        USER_EXISTS(Status.SUCCESS, Reason.NONE, "User exists"),
+        ACCOUNT_EXISTS(Status.SUCCESS, Reason.NONE, "Account exists"),
+        DEACTIVATED(Status.SUCCESS, Reason.NONE, "User was deactivated"),
+        DEPOSITED(Status.SUCCESS, Reason.NONE, "Account was deposited: balance=", "balance"),
+        WITHDRAWED(Status.SUCCESS, Reason.NONE, "Account was withdrawed: balance=", "balance"),
+        TRANSFERRED(Status.SUCCESS, Reason.NONE, "Funds transferred: "),
+        BALANCE(Status.SUCCESS, Reason.NONE, "Balance: ", "balance"),
+        HISTORY(Status.SUCCESS, Reason.NONE, "History: "),
+        BATCH_APPLIED(Status.SUCCESS, Reason.NONE, "Batch applied: "),
+        USER_NOT_FOUND(Status.FAILED, Reason.USER_NOT_FOUND, "User not found: email=", "email"),
+        ACCOUNT_NOT_FOUND(Status.FAILED, Reason.ACCOUNT_NOT_FOUND, "Account not found: email=", "email"),
+        INACTIVE(Status.FAILED, Reason.INACTIVE, "User is inactive"),
+        INVALID_EMAIL(Status.FAILED, Reason.INVALID_REQUEST, "Invalid email: ", "email"),
+        INVALID_AMOUNT(Status.FAILED, Reason.INVALID_REQUEST, "Invalid amount: ", "amount"),
+        INSUFFICIENT_FUNDS(Status.FAILED, Reason.INSUFFICIENT_FUNDS, "Insufficient funds: ", "email"),
+        INVALID_CURSOR(Status.FAILED, Reason.INVALID_REQUEST, "Invalid cursor: ", "cursor"),
+        INVALID_BATCH_ITEM(Status.FAILED, Reason.INVALID_REQUEST, "Invalid batch item: exactly one operation expected"),
+        BATCH_TOO_LARGE(Status.FAILED, Reason.INVALID_REQUEST, "Batch is too large: "),
+        NOT_APPLIED(Status.FAILED, Reason.BATCH_REJECTED, "Not applied: batch was rejected"),
+        BATCH_REJECTED(Status.FAILED, Reason.BATCH_REJECTED, "Batch rejected: "),
+        ATOMIC_BATCH_UNSUPPORTED(Status.FAILED, Reason.INVALID_REQUEST,
+                                 "Atomic batch is not supported by the ledger, use PER_ITEM mode"),
+        INVALID_IDEMPOTENCY_KEY(Status.FAILED, Reason.INVALID_REQUEST, "Invalid idempotency key: ", "key"),
+        IDEMPOTENCY_KEY_REUSED(Status.FAILED, Reason.INVALID_REQUEST,
+                               "Idempotency key was used for another request: ", "key"),
+        /**
+         * Stored response with the original status and reason
+         */
+        RESTORED(Status.SUCCESS, Reason.NONE, "", "message"),
+        OVERLOADED(Status.ERROR, Reason.OVERLOADED, "Service is overloaded, try again later"),
+        ERROR(Status.ERROR, Reason.ERROR, "", "message");
+
+        final Status status;
+        final Reason reason;
+        final String text;
+        final String field;
+
+        Kind(Status status, Reason reason, String text) {
+            this(status, reason, text, null);
+        }
+
+        Kind(Status status, Reason reason, String text, String field) {
+            this.status = status;
+            this.reason = reason;
+            this.text = text;
+            this.field = field;
+        }
+
+    }
+
+    /**
+     * Reason of a failed response, which is not exposed to clients, since the message describes it.
+     */
+    public enum Reason {
+        NONE,
+        INVALID_REQUEST,
+        USER_NOT_FOUND,
+        ACCOUNT_NOT_FOUND,
+        INACTIVE,
+        INSUFFICIENT_FUNDS,
+        BATCH_REJECTED,
+        OVERLOADED,
+        ERROR
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package org.eam.tinybank.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.util.Arrays;
+import lombok.NonNull;
+import org.eam.tinybank.api.ResponseDetails.Amount;
+import org.eam.tinybank.api.ResponseDetails.Balance;
+import org.eam.tinybank.api.ResponseDetails.BatchCounts;
+import org.eam.tinybank.api.ResponseDetails.BatchSize;
+import org.eam.tinybank.api.ResponseDetails.History;
+import org.eam.tinybank.api.ResponseDetails.Transfer;
+import org.eam.tinybank.api.ResponseDetails.Value;
+import org.eam.tinybank.domain.Money;
+
+/**
+ * Writes {@link ApiResponse} straight to the generator buffer in the given {@link ResponseFormat}, without reflection
+ * and message formatting. Field names, kinds and fixed messages are pre-encoded once, so they are copied as bytes, and
+ * balances are written from minor units without intermediate objects.
+ * <p>
+ * In compatibility mode, messages of the most frequent responses are written as the pre-encoded beginning followed by
+ * the value, if it doesn't need escaping, and other messages are formatted as before.
+ */
+public class ApiResponseSerializer extends StdSerializer<ApiResponse> {
+
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString RESULT = new SerializedString("result");
+    private static final SerializedString FROM = new SerializedString("from");
+    private static final SerializedString TO = new SerializedString("to");
+    private static final SerializedString SIZE = new SerializedString("size");
+    private static final SerializedString MAX = new SerializedString("max");
+    private static final SerializedString SUCCEEDED = new SerializedString("succeeded");
+    private static final SerializedString FAILED = new SerializedString("failed");
+    private static final SerializedString ENTRIES = new SerializedString("entries");
+    private static final SerializedString CURSOR = new SerializedString("cursor");
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString AMOUNT = new SerializedString("amount");
+    private static final SerializedString[] STATUSES = serialized(ApiResponse.Status.values());
+    private static final SerializedString[] KINDS = serialized(ApiResponse.Kind.values());
+    private static final SerializedString[] FIELDS = Arrays.stream(ApiResponse.Kind.values())
+        .map(k -> k.field == null ? null : new SerializedString(k.field))
+        .toArray(SerializedString[]::new);
+    /**
+     * Whole messages of kinds without values, and opening quote with message beginning for others
+     */
+    private static final SerializedString[] MESSAGES = Arrays.stream(ApiResponse.Kind.values())
+        .map(k -> new SerializedString(k.field == null ? k.text : "\"" + k.text))
+        .toArray(SerializedString[]::new);
+    private static final char QUOTE = '"';
+
+    private final ResponseFormat format;
+
+    public ApiResponseSerializer(@NonNull ResponseFormat format) {
+        super(ApiResponse.class);
+        this.format = format;
+    }
+
+    /**
+     * Returns a module to register in an {@code ObjectMapper}, so responses are written in the given format.
+     */
+    public static Module module(@NonNull ResponseFormat format) {
+        return new SimpleModule(ApiResponseSerializer.class.getSimpleName())
+            .addSerializer(ApiResponse.class, new ApiResponseSerializer(format));
+    }
+
+    @Override
+    public void serialize(ApiResponse response, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+        generator.writeStartObject(response);
+        if (format == ResponseFormat.MESSAGE) {
+            writeMessage(response, generator);
+            generator.writeFieldName(STATUS);
+            generator.writeString(STATUSES[response.status().ordinal()]);
+        } else {
+            generator.writeFieldName(STATUS);
+            generator.writeString(STATUSES[response.status().ordinal()]);
+            generator.writeFieldName(RESULT);
+            generator.writeString(KINDS[response.kind().ordinal()]);
+            writeDetails(response, generator);
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeMessage(ApiResponse response, JsonGenerator generator) throws IOException {
+        var kind = response.kind().ordinal();
+        generator.writeFieldName(MESSAGE);
+        switch (response.details()) {
+            case ResponseDetails.None ignored -> generator.writeString(MESSAGES[kind]);
+            case Balance(var balance) -> {
+                var buffer = new char[Money.MAX_CHARS];
+                var start = Money.toMajor(balance, buffer);
+                generator.writeRawValue(MESSAGES[kind]);
+                generator.writeRaw(buffer, start, buffer.length - start);
+                generator.writeRaw(QUOTE);
+            }
+            case Value(var value) when plain(value) && response.kind().field != null -> {
+                generator.writeRawValue(MESSAGES[kind]);
+                generator.writeRaw(value);
+                generator.writeRaw(QUOTE);
+            }
+            default -> generator.writeString(response.message());
+        }
+    }
+
+    private static void writeDetails(ApiResponse response, JsonGenerator generator) throws IOException {
+        var field = FIELDS[response.kind().ordinal()];
+        switch (response.details()) {
+            case ResponseDetails.None ignored -> {
+            }
+            case Balance(var balance) -> {
+                var buffer = new char[Money.MAX_CHARS];
+                var start = Money.toMajor(balance, buffer);
+                generator.writeFieldName(field);
+                generator.writeNumber(buffer, start, buffer.length - start);
+            }
+            case Amount(var amount) -> {
+                generator.writeFieldName(field);
+                generator.writeNumber(amount);
+            }
+            case Value(var value) -> {
+                generator.writeFieldName(field);
+                generator.writeString(value);
+            }
+            case Transfer(var from, var to) -> {
+                generator.writeFieldName(FROM);
+                generator.writeString(from);
+                generator.writeFieldName(TO);
+                generator.writeString(to);
+            }
+            case BatchSize(var size, var max) -> {
+                generator.writeFieldName(SIZE);
+                generator.writeNumber(size);
+                generator.writeFieldName(MAX);
+                generator.writeNumber(max);
+            }
+            case BatchCounts(var succeeded, var failed) -> {
+                generator.writeFieldName(SUCCEEDED);
+                generator.writeNumber(succeeded);
+                generator.writeFieldName(FAILED);
+                generator.writeNumber(failed);
+            }
+            case History(var entries, var cursor) -> {
+                generator.writeFieldName(ENTRIES);
+                generator.writeStartArray(entries, entries.size());
+                for (var entry : entries) {
+                    writeEntry(entry, generator);
+                }
+                generator.writeEndArray();
+                if (cursor != null) {
+                    generator.writeFieldName(CURSOR);
+                    generator.writeString(cursor);
+                }
+            }
+        }
+    }
+
+    private static void writeEntry(HistoryEntry entry, JsonGenerator generator) throws IOException {
+        generator.writeStartObject(entry);
+        generator.writeFieldName(ID);
+        generator.writeNumber(entry.id());
+        generator.writeFieldName(TIMESTAMP);
+        generator.writeNumber(entry.timestamp());
+        generator.writeFieldName(TYPE);
+        generator.writeString(entry.type().name());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(entry.description());
+        generator.writeFieldName(AMOUNT);
+        generator.writeNumber(entry.amount());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Returns 'true' if the value can be written as is inside a JSON string.
+     */
+    private static boolean plain(String value) {
+        for (var i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c < ' ' || c == QUOTE || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static SerializedString[] serialized(Enum<?>[] values) {
+        return Arrays.stream(values).map(v -> new SerializedString(v.name())).toArray(SerializedString[]::new);
+    }
+
+}
\ No newline at end of file
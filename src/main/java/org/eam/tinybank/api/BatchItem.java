@@ -0,0 +1,50 @@
+package org.eam.tinybank.api;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Single operation of a batch, where exactly one of the requests must be given, e.g. {"deposit": {...}}. Validation
+ * is delegated to the given request, so batch items are checked the same way as single operations.
+ */
+public record BatchItem(DepositRequest deposit, WithdrawRequest withdraw, TransferRequest transfer)
+    implements UserValidateSupport, AmountValidateSupport {
+
+    public static BatchItem of(DepositRequest deposit) {
+        return new BatchItem(deposit, null, null);
+    }
+
+    public static BatchItem of(WithdrawRequest withdraw) {
+        return new BatchItem(null, withdraw, null);
+    }
+
+    public static BatchItem of(TransferRequest transfer) {
+        return new BatchItem(null, null, transfer);
+    }
+
+    /**
+     * Returns 'true' if exactly one operation is given.
+     */
+    public boolean valid() {
+        return Stream.of(deposit, withdraw, transfer).filter(r -> r != null).count() == 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BigDecimal amount() {
+        return deposit != null ? deposit.amount() : withdraw != null ? withdraw.amount() : transfer.amount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> emailsToCheck() {
+        return deposit != null ? deposit.emailsToCheck()
+            : withdraw != null ? withdraw.emailsToCheck() : transfer.emailsToCheck();
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package org.eam.tinybank.api;
+
+import java.util.List;
+import lombok.NonNull;
+
+/**
+ * Encapsulates several deposit, withdraw and transfer operations, applied in the given order. In ATOMIC mode (default)
+ * either all operations are applied or none, in PER_ITEM mode every valid operation is applied independently.
+ */
+public record BatchRequest(@NonNull List<BatchItem> items, Mode mode) {
+
+    public static final int MAX_ITEMS = 1000;
+
+    public boolean atomic() {
+        return mode != Mode.PER_ITEM;
+    }
+
+    public enum Mode {
+        ATOMIC, PER_ITEM
+    }
+
+}
\ No newline at end of file
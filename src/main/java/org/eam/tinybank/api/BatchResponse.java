@@ -0,0 +1,23 @@
+package org.eam.tinybank.api;
+
+import java.util.List;
+import lombok.NonNull;
+
+/**
+ * Encapsulates the result of a batch, as an overall result and results of every item, in the order of request items.
+ */
+public record BatchResponse(@NonNull ApiResponse result, @NonNull List<ApiResponse> items) {
+
+    /**
+     * Evaluates overall result from results of items: an atomic batch is rejected if any item failed. Items not applied
+     * because of rejection are not counted as failed.
+     */
+    public static BatchResponse of(@NonNull List<ApiResponse> items, boolean atomic) {
+        var notApplied = ApiResponse.notApplied();
+        var failed = (int) items.stream().filter(i -> i.failed() && !i.equals(notApplied)).count();
+        return new BatchResponse(atomic && failed > 0
+                                     ? ApiResponse.batchRejected(failed)
+                                     : ApiResponse.batchApplied(items.size() - failed, failed), items);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package org.eam.tinybank.api;
+
+import java.math.BigDecimal;
+import lombok.NonNull;
+import org.eam.tinybank.domain.HistoryEntity;
+import org.eam.tinybank.domain.Money;
+import org.eam.tinybank.domain.OperationType;
+
+/**
+ * Detached representation of an account history entry, used when history is streamed, so no entity is kept in
+ * persistence context.
+ */
+public record HistoryEntry(@NonNull Long id,
+                           @NonNull Long timestamp,
+                           @NonNull OperationType type,
+                           @NonNull String description,
+                           @NonNull BigDecimal amount) {
+
+    /**
+     * Creates an entry from stored values, with amount in minor units.
+     */
+    public HistoryEntry(@NonNull Long id,
+                        @NonNull Long timestamp,
+                        @NonNull OperationType type,
+                        @NonNull String description,
+                        long amount) {
+        this(id, timestamp, type, description, Money.toMajor(amount));
+    }
+
+    public static HistoryEntry from(@NonNull HistoryEntity entity) {
+        return new HistoryEntry(entity.getId(), entity.getTimestamp(), entity.getType(), entity.getDescription(),
+                                entity.getAmount());
+    }
+
+    /**
+     * Formats the entry the same way as {@code HistoryEntity} does.
+     */
+    public String asString() {
+        return "description=%s, amount=%s".formatted(description, amount);
+    }
+
+}
\ No newline at end of file
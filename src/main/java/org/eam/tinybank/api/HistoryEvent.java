@@ -0,0 +1,17 @@
+package org.eam.tinybank.api;
+
+import lombok.NonNull;
+import org.eam.tinybank.domain.OperationType;
+
+/**
+ * Published account history event, identified by its outbox id, so consumers can tell a redelivered event. Amount is
+ * in minor units, see {@link org.eam.tinybank.domain.Money}.
+ */
+public record HistoryEvent(long id,
+                           @NonNull String email,
+                           long timestamp,
+                           @NonNull OperationType type,
+                           @NonNull String description,
+                           long amount) {
+
+}
\ No newline at end of file
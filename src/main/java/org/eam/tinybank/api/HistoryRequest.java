@@ -0,0 +1,71 @@
+package org.eam.tinybank.api;
+
+import java.util.Optional;
+import lombok.NonNull;
+
+/**
+ * Encapsulates history query parameters. When none of optional parameters is given, the whole history is requested,
+ * otherwise it's read page by page, in order of operations. The cursor is returned with every full page and must be
+ * passed as is to get the next one. Time range is given in epoch milliseconds, start inclusive, end exclusive.
+ */
+public record HistoryRequest(@NonNull String email, String cursor, Integer limit, Long from, Long to)
+    implements SingleUserValidateSupport {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    public static HistoryRequest all(@NonNull String email) {
+        return new HistoryRequest(email, null, null, null, null);
+    }
+
+    public boolean paged() {
+        return cursor != null || limit != null || from != null || to != null;
+    }
+
+    /**
+     * Returns the position of the last seen operation, or empty if cursor is malformed. No cursor means the first page.
+     */
+    public Optional<Position> after() {
+        if (cursor == null) {
+            return Optional.of(Position.FIRST);
+        }
+
+        var parts = cursor.split("-", 2);
+        try {
+            return parts.length == 2
+                ? Optional.of(new Position(Long.parseLong(parts[0]), Long.parseLong(parts[1])))
+                : Optional.empty();
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    public int pageSize() {
+        return limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+    }
+
+    public long fromOrMin() {
+        return from == null ? 0L : from;
+    }
+
+    public long toOrMax() {
+        return to == null ? Long.MAX_VALUE : to;
+    }
+
+    /**
+     * Creates a cursor pointing after given operation.
+     */
+    public static String cursor(long timestamp, long id) {
+        return timestamp + "-" + id;
+    }
+
+    /**
+     * Operation position in history order, i.e. by timestamp, then by id for operations at the same millisecond.
+     */
+    public record Position(long timestamp, long id) {
+
+        public static final Position FIRST = new Position(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    }
+
+}
\ No newline at end of file
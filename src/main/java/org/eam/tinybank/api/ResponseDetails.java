@@ -0,0 +1,50 @@
+package org.eam.tinybank.api;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.NonNull;
+
+/**
+ * Typed values of an {@link ApiResponse}, rendered as separate JSON fields, or formatted into the message in
+ * compatibility mode, see {@link ResponseFormat}. Field names of single values depend on the response kind.
+ */
+public sealed interface ResponseDetails {
+
+    None NONE = new None();
+
+    record None() implements ResponseDetails {
+
+    }
+
+    /**
+     * Balance in minor units, see {@link org.eam.tinybank.domain.Money}.
+     */
+    record Balance(long balance) implements ResponseDetails {
+
+    }
+
+    record Amount(@NonNull BigDecimal amount) implements ResponseDetails {
+
+    }
+
+    record Value(@NonNull String value) implements ResponseDetails {
+
+    }
+
+    record Transfer(@NonNull String from, @NonNull String to) implements ResponseDetails {
+
+    }
+
+    record BatchSize(int size, int max) implements ResponseDetails {
+
+    }
+
+    record BatchCounts(int succeeded, int failed) implements ResponseDetails {
+
+    }
+
+    record History(@NonNull List<HistoryEntry> entries, String cursor) implements ResponseDetails {
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package org.eam.tinybank.api;
+
+/**
+ * JSON format of {@link ApiResponse}, see {@link ApiResponseSerializer}.
+ */
+public enum ResponseFormat {
+    /**
+     * Status, kind of the result and its typed values, e.g. {"status":"SUCCESS","result":"BALANCE","balance":1.00}
+     */
+    STRUCTURED,
+    /**
+     * Compatibility mode: formatted message and status, e.g. {"message":"Balance: 1.00","status":"SUCCESS"}
+     */
+    MESSAGE
+}
\ No newline at end of file
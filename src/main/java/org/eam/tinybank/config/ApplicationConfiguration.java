@@ -0,0 +1,51 @@
+package org.eam.tinybank.config;
+
+import com.fasterxml.jackson.databind.Module;
+import org.eam.tinybank.api.ApiResponseSerializer;
+import org.eam.tinybank.config.properties.AccountProperties;
+import org.eam.tinybank.config.properties.AdmissionProperties;
+import org.eam.tinybank.config.properties.ApiProperties;
+import org.eam.tinybank.config.properties.HistoryProperties;
+import org.eam.tinybank.config.properties.IdempotencyProperties;
+import org.eam.tinybank.config.properties.JournalProperties;
+import org.eam.tinybank.config.properties.LedgerProperties;
+import org.eam.tinybank.config.properties.PoolProperties;
+import org.eam.tinybank.config.properties.ReactiveProperties;
+import org.eam.tinybank.config.properties.ReplicaProperties;
+import org.eam.tinybank.config.properties.UserCacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+@Configuration
+@EnableJpaRepositories(basePackages = "org.eam.tinybank.repository")
+@EnableTransactionManagement
+@EnableConfigurationProperties
+@EnableScheduling
+@Import({LedgerProperties.class, HistoryProperties.class, UserCacheProperties.class, AccountProperties.class,
+    AdmissionProperties.class, ReactiveProperties.class, IdempotencyProperties.class, JournalProperties.class,
+    ApiProperties.class, PoolProperties.class, ReplicaProperties.class})
+public class ApplicationConfiguration {
+
+    /**
+     * Registered in the application {@code ObjectMapper}, used by both MVC and WebFlux.
+     */
+    @Bean
+    Module apiResponseModule(ApiProperties properties) {
+        return ApiResponseSerializer.module(properties.getResponseFormat());
+    }
+
+    /**
+     * Static, as a post processor is created before other beans, and properties are only resolved when the pool is.
+     */
+    @Bean
+    static PoolSizing poolSizing(ObjectProvider<PoolProperties> properties) {
+        return new PoolSizing(properties);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package org.eam.tinybank.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.sql.DataSource;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.config.properties.AdmissionProperties;
+import org.eam.tinybank.config.properties.PoolProperties;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs effective connection pool and JDBC batching settings on startup, as applied by Hikari and Hibernate rather than
+ * as configured, and warns about combinations known to cost throughput.
+ */
+@Component
+@Log4j2
+public class DataSourceSelfCheck {
+
+    private final ObjectProvider<DataSource> dataSource;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final AdmissionProperties admission;
+    private final PoolProperties pool;
+
+    DataSourceSelfCheck(ObjectProvider<DataSource> dataSource,
+                        ObjectProvider<EntityManagerFactory> entityManagerFactory, AdmissionProperties admission,
+                        PoolProperties pool) {
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        this.admission = admission;
+        this.pool = pool;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void check() {
+        var hikari = hikari();
+        if (hikari != null) {
+            log.info("Connection pool: pool={}, maximumPoolSize={}, minimumIdle={}, connectionTimeoutMs={}, "
+                         + "maxLifetimeMs={}, dataSourceProperties={}", hikari.getPoolName(),
+                     hikari.getMaximumPoolSize(), hikari.getMinimumIdle(), hikari.getConnectionTimeout(),
+                     hikari.getMaxLifetime(), hikari.getDataSourceProperties().keySet());
+        }
+        sessionFactory().ifPresent(sessionFactory -> {
+            var settings = sessionFactory.getSessionFactoryOptions();
+            log.info("JDBC batching: batchSize={}, orderInserts={}, orderUpdates={}, batchVersionedData={}, "
+                         + "dialect={}", settings.getJdbcBatchSize(), settings.isOrderInsertsEnabled(),
+                     settings.isOrderUpdatesEnabled(), settings.isJdbcBatchVersionedData(),
+                     sessionFactory.getJdbcServices().getDialect().getClass().getSimpleName());
+        });
+        warnings().forEach(log::warn);
+    }
+
+    /**
+     * Returns descriptions of settings that limit throughput, empty if there are none.
+     */
+    public List<String> warnings() {
+        var warnings = new ArrayList<String>();
+        var hikari = hikari();
+        sessionFactory().ifPresent(sessionFactory -> {
+            var settings = sessionFactory.getSessionFactoryOptions();
+            if (settings.getJdbcBatchSize() < 2) {
+                warnings.add("JDBC batching is disabled, set spring.jpa.properties.hibernate.jdbc.batch_size");
+            } else if (!settings.isOrderInsertsEnabled() || !settings.isOrderUpdatesEnabled()) {
+                warnings.add("Inserts or updates are not ordered, so batches are split by entity type");
+            }
+            if (hikari != null && sessionFactory.getJdbcServices().getDialect() instanceof PostgreSQLDialect
+                && !"true".equals(hikari.getDataSourceProperties().getProperty("reWriteBatchedInserts"))) {
+                warnings.add("Batched inserts are sent row by row, set reWriteBatchedInserts data source property");
+            }
+        });
+        if (hikari != null) {
+            if (admission.isEnabled() && admission.getMaxConcurrent() > hikari.getMaximumPoolSize()) {
+                warnings.add("Admission allows %s requests at once for %s connections".formatted(
+                    admission.getMaxConcurrent(), hikari.getMaximumPoolSize()));
+            }
+            if (pool.getMaxConcurrency() > 0 && hikari.getMaximumPoolSize() > pool.getMaxConcurrency()) {
+                warnings.add("Pool has %s connections, more than measured database concurrency %s".formatted(
+                    hikari.getMaximumPoolSize(), pool.getMaxConcurrency()));
+            }
+        }
+        return warnings;
+    }
+
+    /**
+     * Returns the primary pool, also when it's wrapped, e.g. for replica routing.
+     */
+    @SneakyThrows
+    private HikariDataSource hikari() {
+        var primary = dataSource.getIfAvailable();
+        return primary != null && primary.isWrapperFor(HikariDataSource.class)
+            ? primary.unwrap(HikariDataSource.class)
+            : null;
+    }
+
+    private Optional<SessionFactoryImplementor> sessionFactory() {
+        return Optional.ofNullable(entityManagerFactory.getIfAvailable())
+            .map(f -> f.unwrap(SessionFactoryImplementor.class));
+    }
+
+}
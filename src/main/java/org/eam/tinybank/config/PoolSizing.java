@@ -0,0 +1,45 @@
+package org.eam.tinybank.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.Set;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.config.properties.PoolProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Sizes the Hikari pool from available cores before it is started, when auto-sizing is enabled. Minimum idle is the
+ * same as maximum size, so the pool is fixed, and connections are not opened under load. Only the primary pool is
+ * sized, a replica pool keeps its own configuration.
+ */
+@Log4j2
+class PoolSizing implements BeanPostProcessor {
+
+    private static final Set<String> PRIMARY = Set.of("dataSource", "primaryDataSource");
+
+    private final ObjectProvider<PoolProperties> properties;
+
+    PoolSizing(ObjectProvider<PoolProperties> properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (bean instanceof HikariDataSource dataSource && PRIMARY.contains(beanName)
+            && properties.getObject().isAutoSize()) {
+            var cores = Runtime.getRuntime().availableProcessors();
+            var size = size(cores, properties.getObject());
+            log.info("Pool is auto-sized: cores={}, size={}", cores, size);
+            dataSource.setMaximumPoolSize(size);
+            dataSource.setMinimumIdle(size);
+        }
+        return bean;
+    }
+
+    static int size(int cores, @NonNull PoolProperties properties) {
+        var size = cores * properties.getConnectionsPerCore() + properties.getSpindles();
+        return properties.getMaxConcurrency() > 0 ? Math.min(size, properties.getMaxConcurrency()) : size;
+    }
+
+}
@@ -0,0 +1,57 @@
+package org.eam.tinybank.config.properties;
+
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Data;
+import org.eam.tinybank.ledger.LockingStrategy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of account operations applied to the database.
+ */
+@ConfigurationProperties(prefix = "account")
+@Data
+public class AccountProperties {
+
+    private Locking locking = new Locking();
+    private Snapshot snapshot = new Snapshot();
+    private Striping striping = new Striping();
+
+    /**
+     * Locking strategy, and retries of operations failed because of concurrent updates, with exponential backoff.
+     */
+    @Data
+    public static class Locking {
+
+        private LockingStrategy strategy = LockingStrategy.PESSIMISTIC_READ;
+        private int maxAttempts = 5;
+        private long backoffMs = 5;
+
+    }
+
+    /**
+     * In-memory balance snapshots, updated after commit, and served for balance reads until they are older than max
+     * staleness.
+     */
+    @Data
+    public static class Snapshot {
+
+        private boolean enabled = true;
+        private long maxSize = 100_000;
+        private long maxStalenessMs = 1_000;
+
+    }
+
+    /**
+     * Striped accounts, e.g. merchant ones, whose balances are spread over slots, so concurrent deposits don't wait for
+     * each other. Striping is off unless there are more than one slot.
+     */
+    @Data
+    public static class Striping {
+
+        private int slots = 1;
+        private Set<String> accounts = new HashSet<>();
+
+    }
+
+}
\ No newline at end of file
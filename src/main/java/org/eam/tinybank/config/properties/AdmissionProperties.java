@@ -0,0 +1,18 @@
+package org.eam.tinybank.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of admission control of API requests, which bounds the number of requests using database connections at
+ * once, so the rest wait for a permit rather than for a connection.
+ */
+@ConfigurationProperties(prefix = "admission")
+@Data
+public class AdmissionProperties {
+
+    private boolean enabled = false;
+    private int maxConcurrent = 10;
+    private long timeoutMs = 1000;
+
+}
\ No newline at end of file
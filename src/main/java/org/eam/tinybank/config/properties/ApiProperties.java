@@ -0,0 +1,16 @@
+package org.eam.tinybank.config.properties;
+
+import lombok.Data;
+import org.eam.tinybank.api.ResponseFormat;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of API responses.
+ */
+@ConfigurationProperties(prefix = "api")
+@Data
+public class ApiProperties {
+
+    private ResponseFormat responseFormat = ResponseFormat.STRUCTURED;
+
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package org.eam.tinybank.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of history persistence.
+ */
+@ConfigurationProperties(prefix = "history")
+@Data
+public class HistoryProperties {
+
+    private Batch batch = new Batch();
+    private Outbox outbox = new Outbox();
+
+    /**
+     * Group commit settings: operations of concurrent requests are applied in one transaction, when either group size
+     * is reached or the window since the group is started is elapsed, and their entries are inserted together before
+     * it's committed, in JDBC batches of hibernate.jdbc.batch_size.
+     */
+    @Data
+    public static class Batch {
+
+        private boolean enabled;
+        private int size = 100;
+        private long windowMs = 2;
+
+    }
+
+    /**
+     * Transactional outbox settings: events are stored with the balance change, and a relay publishes them in batches,
+     * polling the outbox when the previous batch was not full.
+     */
+    @Data
+    public static class Outbox {
+
+        private boolean enabled;
+        private int batchSize = 100;
+        private long pollIntervalMs = 20;
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package org.eam.tinybank.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of idempotency keys store: responses are kept for the retention period, the most recent ones also in memory.
+ */
+@ConfigurationProperties(prefix = "idempotency")
+@Data
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+    private long maxSize = 10_000;
+    private long retentionSeconds = 86_400;
+    private long cleanupIntervalMs = 60_000;
+
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package org.eam.tinybank.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the operation journal: records are appended to memory-mapped segment files of fixed size, and forced to
+ * disk together once per fsync interval.
+ */
+@ConfigurationProperties(prefix = "journal")
+@Data
+public class JournalProperties {
+
+    private boolean enabled;
+    private String directory = "journal";
+    private int segmentSizeBytes = 64 * 1024 * 1024;
+    private long fsyncIntervalMs = 5;
+    /**
+     * Whether appending waits for the next fsync, so an acknowledged operation is never lost
+     */
+    private boolean awaitFsync = true;
+    /**
+     * How long appending waits for fsync, before the operation fails as not durable
+     */
+    private long awaitTimeoutMs = 1000;
+
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package org.eam.tinybank.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the in-memory ledger engine, used only when 'ledger' profile is active.
+ */
+@ConfigurationProperties(prefix = "ledger")
+@Data
+public class LedgerProperties {
+
+    private int shards;
+    private int batchSize;
+    private long flushIntervalMs;
+    private int maxAttempts = 5;
+    private Recovery recovery;
+    private Execution execution = Execution.SHARDS;
+
+    public enum Recovery {
+        /**
+         * Balances are loaded as they are stored in account table
+         */
+        SNAPSHOT,
+        /**
+         * Balances are rebuilt from persisted history, and account table is corrected if needed
+         */
+        HISTORY
+    }
+
+    public enum Execution {
+        /**
+         * Accounts are partitioned across the configured number of single-threaded shards
+         */
+        SHARDS,
+        /**
+         * Every account has its own mailbox, drained by a virtual thread
+         */
+        ACTORS
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package org.eam.tinybank.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of connection pool auto-sizing: when enabled, the pool has a fixed size of cores * connections per core +
+ * spindles, bounded by the measured concurrency of the database, i.e. the number of connections beyond which its
+ * throughput does not grow.
+ */
+@ConfigurationProperties(prefix = "pool")
+@Data
+public class PoolProperties {
+
+    private boolean autoSize;
+    private int connectionsPerCore = 2;
+    private int spindles = 1;
+    /**
+     * Measured concurrency of the database, zero if not measured
+     */
+    private int maxConcurrency;
+
+}
@@ -0,0 +1,20 @@
+package org.eam.tinybank.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the reactive stack: R2DBC connection to the same database JPA uses, pool size, and the number of history
+ * rows requested from the database at once when history is streamed.
+ */
+@ConfigurationProperties(prefix = "reactive")
+@Data
+public class ReactiveProperties {
+
+    private String url = "r2dbc:h2:mem:///testdb";
+    private String username = "sa";
+    private String password = "";
+    private int poolSize = 10;
+    private int prefetch = 100;
+
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package org.eam.tinybank.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the read replica: read-only transactions are served by it while it's available, and lags behind the
+ * primary not more than max lag, which is measured once per check interval, so must be greater than it.
+ */
+@ConfigurationProperties(prefix = "replica")
+@Data
+public class ReplicaProperties {
+
+    private boolean enabled;
+    private String url;
+    /**
+     * R2DBC url of the same replica for the reactive stack, which reads only from the primary, if it's not set
+     */
+    private String r2dbcUrl;
+    private String username;
+    private String password;
+    private int poolSize = 10;
+    /**
+     * Time to wait for a replica connection before reading from the primary
+     */
+    private long connectionTimeoutMs = 1000;
+    private long maxLagMs = 5000;
+    private long checkIntervalMs = 1000;
+
+}
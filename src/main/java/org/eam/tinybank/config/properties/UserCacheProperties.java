@@ -0,0 +1,17 @@
+package org.eam.tinybank.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of user status cache, checked on every account operation.
+ */
+@ConfigurationProperties(prefix = "user.cache")
+@Data
+public class UserCacheProperties {
+
+    private boolean enabled = true;
+    private long maxSize = 10_000;
+    private long ttlSeconds = 60;
+
+}
\ No newline at end of file
@@ -1,33 +1,51 @@
 package org.eam.tinybank.controller;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.BatchRequest;
+import org.eam.tinybank.api.BatchResponse;
 import org.eam.tinybank.api.CreateAccountRequest;
 import org.eam.tinybank.api.DepositRequest;
+import org.eam.tinybank.api.HistoryRequest;
 import org.eam.tinybank.api.TransferRequest;
 import org.eam.tinybank.api.WithdrawRequest;
 import org.eam.tinybank.service.AccountService;
+import org.eam.tinybank.service.IdempotencyService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Encapsulates endpoints for account operations, such as create and deposit. User must have a user profile created
  * beforehand. NOTE that there are only two possible HTTP statuses in responses: 200 OK and 400 BAD REQUEST, even though
  * 201 CREATED might be useful.
+ * <p>
+ * Deposit, withdraw and transfer accept an optional {@value #IDEMPOTENCY_KEY} header, so a retried request with the
+ * same key gets the original response, and is not applied again.
  */
 @RestController()
+@Profile("!reactive")
 @RequestMapping("/api/account")
 @AllArgsConstructor
 class AccountController implements RestSupport {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final AccountService accountService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping(path = "create", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
     ResponseEntity<ApiResponse> create(@RequestBody CreateAccountRequest request) {
@@ -35,18 +53,30 @@ class AccountController implements RestSupport {
     }
 
     @PostMapping(path = "deposit", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
-    ResponseEntity<ApiResponse> deposit(@RequestBody DepositRequest request) {
-        return responseFrom(accountService.deposit(request));
+    ResponseEntity<ApiResponse> deposit(@RequestHeader(name = IDEMPOTENCY_KEY, required = false) String key,
+                                        @RequestBody DepositRequest request) {
+        return responseFrom(idempotencyService.applied(key, request, () -> accountService.deposit(request)));
     }
 
     @PostMapping(path = "withdraw", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
-    ResponseEntity<ApiResponse> deposit(@RequestBody WithdrawRequest request) {
-        return responseFrom(accountService.withdraw(request));
+    ResponseEntity<ApiResponse> withdraw(@RequestHeader(name = IDEMPOTENCY_KEY, required = false) String key,
+                                         @RequestBody WithdrawRequest request) {
+        return responseFrom(idempotencyService.applied(key, request, () -> accountService.withdraw(request)));
     }
 
     @PostMapping(path = "transfer", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
-    ResponseEntity<ApiResponse> transfer(@RequestBody TransferRequest request) {
-        return responseFrom(accountService.transfer(request));
+    ResponseEntity<ApiResponse> transfer(@RequestHeader(name = IDEMPOTENCY_KEY, required = false) String key,
+                                         @RequestBody TransferRequest request) {
+        return responseFrom(idempotencyService.applied(key, request, () -> accountService.transfer(request)));
+    }
+
+    /**
+     * Returns HTTP status of the overall result, and results of all items in the body.
+     */
+    @PostMapping(path = "batch", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    ResponseEntity<BatchResponse> batch(@RequestBody BatchRequest request) {
+        var response = accountService.batch(request);
+        return ResponseEntity.status(response.result().statusCode()).body(response);
     }
 
     @GetMapping(path = "balance", produces = APPLICATION_JSON_VALUE)
@@ -55,8 +85,29 @@ class AccountController implements RestSupport {
     }
 
     @GetMapping(path = "history", produces = APPLICATION_JSON_VALUE)
-    ResponseEntity<ApiResponse> history(@RequestParam String email) {
-        return responseFrom(accountService.history(email));
+    ResponseEntity<ApiResponse> history(@RequestParam String email,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer limit,
+                                        @RequestParam(required = false) Long from,
+                                        @RequestParam(required = false) Long to) {
+        return responseFrom(accountService.history(new HistoryRequest(email, cursor, limit, from, to)));
+    }
+
+    /**
+     * Streams the whole history, or its time range, as NDJSON. Errors are returned as regular JSON responses.
+     */
+    @GetMapping(path = "history/stream", produces = {APPLICATION_NDJSON_VALUE, APPLICATION_JSON_VALUE})
+    ResponseEntity<StreamingResponseBody> historyStream(@RequestParam String email,
+                                                        @RequestParam(required = false) Long from,
+                                                        @RequestParam(required = false) Long to) {
+        var request = new HistoryRequest(email, null, null, from, to);
+        return accountService.invalidHistory(email)
+            .map(r -> ResponseEntity.status(r.statusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .<StreamingResponseBody>body(out -> objectMapper.writeValue(out, r)))
+            .orElseGet(() -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> accountService.streamHistory(request, out)));
     }
 
 }
\ No newline at end of file
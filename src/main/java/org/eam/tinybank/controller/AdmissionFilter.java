@@ -0,0 +1,128 @@
+package org.eam.tinybank.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.config.properties.AdmissionProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Admits not more than configured number of API requests at once, in arrival order, so with virtual threads a burst of
+ * requests waits here, cheaply parked, instead of stampeding the connection pool. A request not admitted within the
+ * timeout gets 503 SERVICE UNAVAILABLE. Active and queued requests are exposed as gauges. A request processed
+ * asynchronously, like a streamed history, holds its permit until the async processing completes.
+ */
+@Component
+@ConditionalOnProperty(prefix = "admission", name = "enabled", havingValue = "true")
+class AdmissionFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long timeoutMs;
+    private final Timer wait;
+    private final Counter rejected;
+    private final ObjectMapper objectMapper;
+
+    AdmissionFilter(AdmissionProperties properties, MeterRegistry registry, ObjectMapper objectMapper) {
+        this.permits = new Semaphore(properties.getMaxConcurrent(), true);
+        this.timeoutMs = properties.getTimeoutMs();
+        Gauge.builder("bank.admission.active", () -> properties.getMaxConcurrent() - permits.availablePermits())
+            .description("Requests admitted and being processed")
+            .register(registry);
+        Gauge.builder("bank.admission.queued", permits::getQueueLength)
+            .description("Requests waiting for admission")
+            .register(registry);
+        this.wait = Timer.builder("bank.admission.wait")
+            .description("Time spent waiting for admission")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(registry);
+        this.rejected = Counter.builder("bank.admission.rejected")
+            .description("Requests not admitted within the timeout")
+            .register(registry);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        if (!admitted()) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), ApiResponse.overloaded());
+            return;
+        }
+        var async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+            if (async) {
+                request.getAsyncContext().addListener(new Release());
+            }
+        } finally {
+            if (!async) {
+                permits.release();
+            }
+        }
+    }
+
+    private boolean admitted() {
+        var started = System.nanoTime();
+        try {
+            return permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            wait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Releases the permit when async processing completes, which is notified after an error or a timeout as well.
+     */
+    private class Release implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permits.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package org.eam.tinybank.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.BatchResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Counts API responses by status and failure reason, before they are written. Endpoint latencies are measured by
+ * Spring MVC itself, see {@code http.server.requests} metric.
+ */
+@ControllerAdvice
+@AllArgsConstructor
+class ResponseMetrics implements ResponseBodyAdvice<Object> {
+
+    private static final String RESPONSES = "bank.responses";
+
+    private final MeterRegistry registry;
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+                            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  @NonNull MethodParameter returnType,
+                                  @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request,
+                                  @NonNull ServerHttpResponse response) {
+        if (body instanceof ApiResponse apiResponse) {
+            count(apiResponse);
+        } else if (body instanceof BatchResponse batchResponse) {
+            count(batchResponse.result());
+        }
+        return body;
+    }
+
+    private void count(ApiResponse response) {
+        Counter.builder(RESPONSES)
+            .description("API responses by status and failure reason")
+            .tag("status", response.outcome())
+            .tag("reason", response.reason().name())
+            .register(registry)
+            .increment();
+    }
+
+}
\ No newline at end of file
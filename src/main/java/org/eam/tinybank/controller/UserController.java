@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import org.eam.tinybank.api.ApiResponse;
 import org.eam.tinybank.api.CreateUserRequest;
 import org.eam.tinybank.service.UserService;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -19,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
  * statuses in responses: 200 OK and 400 BAD REQUEST, even though 201 CREATED might be useful.
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/user")
 @AllArgsConstructor
 class UserController implements RestSupport {
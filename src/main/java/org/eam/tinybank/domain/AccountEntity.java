@@ -2,7 +2,7 @@ package org.eam.tinybank.domain;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
-import java.math.BigDecimal;
+import jakarta.persistence.Version;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -11,7 +11,9 @@ import lombok.NoArgsConstructor;
 import lombok.NonNull;
 
 /**
- * Represents a user account, identified by email. Holds current balance and history to maintain atomicity.
+ * Represents a user account, identified by email. Holds current balance and history to maintain atomicity. Version is
+ * used by optimistic locking, and is carried over to updated instances, so a stale update is detected on save. Balance
+ * is kept in minor units, see {@link Money}.
  */
 @Entity
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -23,26 +25,30 @@ public class AccountEntity {
     @Id
     @NonNull
     private String email;
-    @NonNull
-    private BigDecimal balance;
+    private long balance;
+    @Version
+    private Long version;
 
     /**
      * Creates a user account record from given email, with zero balance.
      */
     public static AccountEntity from(String email) {
-        return new AccountEntity(email, BigDecimal.ZERO);
+        return new AccountEntity(email, 0, null);
     }
 
-    public AccountEntity deposited(@NonNull BigDecimal amount) {
-        return new AccountEntity(email, balance.add(amount));
+    public AccountEntity deposited(long amount) {
+        return new AccountEntity(email, Money.add(balance, amount), version);
     }
 
-    public AccountEntity withdrawed(@NonNull BigDecimal amount) {
-        return new AccountEntity(email, balance.subtract(amount));
+    public AccountEntity withdrawed(long amount) {
+        return new AccountEntity(email, Money.subtract(balance, amount), version);
     }
 
-    public boolean canWithdraw(@NonNull BigDecimal amount) {
-        return balance.subtract(amount).compareTo(BigDecimal.ZERO) > 0;
+    /**
+     * Returns 'true' if the balance stays positive after withdrawal. Compares without subtraction, so can't overflow.
+     */
+    public boolean canWithdraw(long amount) {
+        return balance > amount;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package org.eam.tinybank.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import java.io.Serializable;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+/**
+ * Represents a part of a striped account balance, so concurrent deposits to the same account update different rows.
+ * The account balance is the sum of its own balance and balances of all slots. Balance is kept in minor units, see
+ * {@link Money}.
+ */
+@Entity
+@IdClass(AccountSlotEntity.Key.class)
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+@EqualsAndHashCode
+public class AccountSlotEntity {
+
+    @Id
+    @NonNull
+    private String email;
+    @Id
+    private int slot;
+    private long balance;
+
+    /**
+     * Creates an empty slot of the given account.
+     */
+    public static AccountSlotEntity from(@NonNull String email, int slot) {
+        return new AccountSlotEntity(email, slot, 0);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String email;
+        private int slot;
+
+    }
+
+}
\ No newline at end of file
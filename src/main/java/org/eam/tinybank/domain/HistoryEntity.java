@@ -4,28 +4,34 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import java.math.BigDecimal;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import org.eam.tinybank.api.HistoryEvent;
 
 /**
- * Represents account history entry, as details of any account operation.
+ * Represents account history entry, as details of any account operation. Amount is kept in minor units, see
+ * {@link Money}. History is read by account in order of operations, i.e. by timestamp and id, so the index covers
+ * both, see db/migration.
  * TODO transaction rollback test if an exception happens during history?
- * TODO evolve into history microservice with Kafka
  */
 @Entity
+@Table(indexes = @Index(name = "history_email_timestamp_id", columnList = "email, timestamp, id"))
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @Getter
 @EqualsAndHashCode
-public class HistoryEntity { // TODO compare performance with and without index
+public class HistoryEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // TODO use seq
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "history_seq")
+    @SequenceGenerator(name = "history_seq", sequenceName = "history_seq", allocationSize = 1000)
     private Long id;
     @NonNull
     private String email;
@@ -35,34 +41,49 @@ public class HistoryEntity { // TODO compare performance with and without index
     private String description;
     @NonNull
     private OperationType type;
-    @NonNull
-    private BigDecimal amount;
+    private long amount;
 
 
-    public static HistoryEntity deposit(@NonNull String email, @NonNull BigDecimal amount) {
+    public static HistoryEntity deposit(@NonNull String email, long amount) {
         return new HistoryEntity(null, email, System.currentTimeMillis(),
-                                 "Deposit: %s".formatted(amount), OperationType.DEPOSIT, amount);
+                                 "Deposit: %s".formatted(Money.toMajor(amount)), OperationType.DEPOSIT, amount);
     }
 
-    public static HistoryEntity withdraw(@NonNull String email, @NonNull BigDecimal amount) {
+    public static HistoryEntity withdraw(@NonNull String email, long amount) {
         return new HistoryEntity(null, email, System.currentTimeMillis(),
-                                 "Withdraw: %s".formatted(amount), OperationType.WITHDRAW, amount);
+                                 "Withdraw: %s".formatted(Money.toMajor(amount)), OperationType.WITHDRAW, amount);
     }
 
-    public static HistoryEntity transferTo(@NonNull String email, @NonNull String emailTo, @NonNull BigDecimal amount) {
+    public static HistoryEntity transferTo(@NonNull String email, @NonNull String emailTo, long amount) {
         return new HistoryEntity(null, email, System.currentTimeMillis(),
                                  "Transfer to %s".formatted(emailTo), OperationType.TRANSFER_TO, amount);
     }
 
-    public static HistoryEntity receiveFrom(@NonNull String email,
-                                            @NonNull String emailFrom,
-                                            @NonNull BigDecimal amount) {
+    public static HistoryEntity receiveFrom(@NonNull String email, @NonNull String emailFrom, long amount) {
         return new HistoryEntity(null, email, System.currentTimeMillis(),
                                  "Receive from %s".formatted(emailFrom), OperationType.RECEIVE_FROM, amount);
     }
 
-    public String asString() {
-        return "description=%s, amount=%s".formatted(description, amount);
+    /**
+     * Returns the change of account balance made by the operation, negative for debits.
+     */
+    public long balanceChange() {
+        return type.credit() ? amount : -amount;
+    }
+
+    /**
+     * Returns a new instance of the same entry without id, e.g. to insert it again after a rolled back attempt.
+     */
+    public HistoryEntity copied() {
+        return new HistoryEntity(null, email, timestamp, description, type, amount);
+    }
+
+    /**
+     * Creates an entry from a published event, e.g. when history is projected from the outbox.
+     */
+    public static HistoryEntity from(@NonNull HistoryEvent event) {
+        return new HistoryEntity(null, event.email(), event.timestamp(), event.description(), event.type(),
+                                 event.amount());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package org.eam.tinybank.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import org.eam.tinybank.api.ApiResponse;
+
+/**
+ * Represents the response of an operation, stored by client given idempotency key, so a retried request gets the same
+ * response. Fingerprint of the request, a digest of its JSON, is stored to detect reuse of the key for another
+ * request. The response is stored as its kind and message, see {@link ApiResponse#restored}.
+ */
+@Entity
+@Table(indexes = @Index(name = "idempotency_created_at", columnList = "createdAt"))
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+@EqualsAndHashCode
+public class IdempotencyEntity {
+
+    @Id
+    @NonNull
+    private String id;
+    @NonNull
+    private String fingerprint;
+    @Enumerated(EnumType.STRING)
+    private ApiResponse.Kind kind;
+    @NonNull
+    private String message;
+    @NonNull
+    private String outcome;
+    @Enumerated(EnumType.STRING)
+    @NonNull
+    private ApiResponse.Reason reason;
+    private long createdAt;
+
+    public static IdempotencyEntity from(@NonNull String key, @NonNull String fingerprint,
+                                         @NonNull ApiResponse response) {
+        return new IdempotencyEntity(key, fingerprint, response.kind(), response.message(), response.outcome(),
+                                     response.reason(), System.currentTimeMillis());
+    }
+
+    public ApiResponse response() {
+        return ApiResponse.restored(kind, message, outcome, reason);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package org.eam.tinybank.domain;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+/**
+ * Converts amounts between decimal major units, used in requests and responses, and {@code long} minor units, used in
+ * the domain and stored in the database, e.g. 12.34 EUR is 1234. All accounts are in the same currency, so the scale
+ * is fixed. Arithmetic is checked for overflow, and an amount with more fraction digits than the scale is rejected
+ * instead of rounded.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Money {
+
+    public static final Currency CURRENCY = Currency.getInstance("EUR");
+    public static final int SCALE = CURRENCY.getDefaultFractionDigits();
+
+    /**
+     * Buffer length enough for any amount written with {@link #toMajor(long, char[])}
+     */
+    public static final int MAX_CHARS = 21;
+
+    private static final BigDecimal MAX = BigDecimal.valueOf(Long.MAX_VALUE, SCALE);
+
+    /**
+     * Returns 'true' if the amount can be converted to minor units without rounding or overflow.
+     */
+    public static boolean fits(@NonNull BigDecimal amount) {
+        return amount.stripTrailingZeros().scale() <= SCALE && amount.abs().compareTo(MAX) <= 0;
+    }
+
+    /**
+     * @throws ArithmeticException if the amount has more fraction digits than the scale, or is out of range
+     */
+    public static long toMinor(@NonNull BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toMajor(long amount) {
+        return BigDecimal.valueOf(amount, SCALE);
+    }
+
+    /**
+     * Writes the amount in major units to the end of the buffer, the same way as {@code toMajor(amount).toPlainString()}
+     * does, but without allocations.
+     *
+     * @return the index of the first written char
+     */
+    public static int toMajor(long amount, char @NonNull [] buffer) {
+        var position = buffer.length;
+        var remaining = amount < 0 ? amount : -amount; // negative, so Long.MIN_VALUE fits
+        for (var i = 0; i < SCALE; i++) {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        }
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (amount < 0) {
+            buffer[--position] = '-';
+        }
+        return position;
+    }
+
+    /**
+     * @throws ArithmeticException on overflow
+     */
+    public static long add(long balance, long amount) {
+        return Math.addExact(balance, amount);
+    }
+
+    /**
+     * @throws ArithmeticException on overflow
+     */
+    public static long subtract(long balance, long amount) {
+        return Math.subtractExact(balance, amount);
+    }
+
+}
\ No newline at end of file
@@ -5,6 +5,13 @@ public enum OperationType {
     DEPOSIT,
     WITHDRAW,
     TRANSFER_TO,
-    RECEIVE_FROM
+    RECEIVE_FROM;
+
+    /**
+     * Returns 'true' if the operation increases account balance.
+     */
+    public boolean credit() {
+        return this == DEPOSIT || this == RECEIVE_FROM;
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package org.eam.tinybank.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import org.eam.tinybank.api.HistoryEvent;
+
+/**
+ * Represents a history event not published yet, stored in the same transaction as the balance change, and deleted
+ * once published.
+ */
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+@EqualsAndHashCode
+public class OutboxEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 100)
+    private Long id;
+    @NonNull
+    private String email;
+    private long timestamp;
+    @NonNull
+    private String description;
+    @NonNull
+    private OperationType type;
+    private long amount;
+
+    public static OutboxEntity from(@NonNull HistoryEntity history) {
+        return new OutboxEntity(null, history.getEmail(), history.getTimestamp(), history.getDescription(),
+                                history.getType(), history.getAmount());
+    }
+
+    public HistoryEvent event() {
+        return new HistoryEvent(id, email, timestamp, type, description, amount);
+    }
+
+}
\ No newline at end of file
@@ -44,7 +44,7 @@ public class UserEntity {
      * Creates a <b>new</b> instance with same data but inactive.
      */
     public UserEntity deactivated() {
-        return new UserEntity(firstname, lastname, email, Status.DEACTIVATED);
+        return new UserEntity(email, firstname, lastname, Status.DEACTIVATED);
     }
 
     public boolean inactive() {
@@ -0,0 +1,180 @@
+package org.eam.tinybank.journal;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.config.properties.JournalProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Append-only log of applied account operations, written to memory-mapped segment files. A segment is rolled when the
+ * next record doesn't fit, and a background thread forces written records to disk once per fsync interval, so
+ * concurrent appends share one fsync. If fsync is awaited, append returns only after its record is durable, or fails
+ * if it's not durable within the await timeout, or the fsync thread is not running.
+ * <p>
+ * On startup appending continues after the last valid record, overwriting a torn one left by a crash. See
+ * {@link JournalReplay} for reading records back.
+ * <p>
+ * NOTE that operations are journaled after they are applied by the ledger, so an operation may be lost if the process
+ * crashes in between, and concurrent operations may be journaled in a different order than they are committed.
+ */
+@Component
+@Log4j2
+public class Journal {
+
+    private final JournalProperties properties;
+    private final Path directory;
+    private final Object durable = new Object();
+    private final Thread flusher;
+    private MappedByteBuffer segment;
+    private long lastSequence;
+    private volatile long durableSequence;
+    private volatile boolean running = true;
+
+    public Journal(JournalProperties properties) throws IOException {
+        this.properties = properties;
+        this.directory = Path.of(properties.getDirectory());
+        if (!properties.isEnabled()) {
+            this.flusher = null;
+            return;
+        }
+
+        Files.createDirectories(directory);
+        JournalReplay.records(directory, r -> lastSequence = r.sequence());
+        durableSequence = lastSequence;
+        var segments = JournalSegments.list(directory);
+        if (segments.isEmpty()) {
+            segment = JournalSegments.map(JournalSegments.path(directory, lastSequence + 1),
+                                          properties.getSegmentSizeBytes());
+        } else {
+            var last = segments.getLast();
+            segment = JournalSegments.map(last, (int) Math.max(properties.getSegmentSizeBytes(), Files.size(last)));
+            while (JournalRecord.read(segment) != null) {
+                // skips valid records
+            }
+        }
+        log.info("Journal opened: directory={}, lastSequence={}", directory, lastSequence);
+        this.flusher = Thread.ofPlatform().name("journal-fsync").daemon().start(this::run);
+    }
+
+    public boolean enabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Appends an operation record, if the journal is enabled.
+     *
+     * @return the record sequence, or zero if the journal is disabled
+     * @throws IllegalStateException if fsync is awaited, and the record is not durable in time
+     */
+    public long append(@NonNull JournalRecord.Type type, @NonNull String email, String counterparty, long amount) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+
+        long sequence;
+        synchronized (this) {
+            sequence = ++lastSequence;
+            var record = new JournalRecord(sequence, System.currentTimeMillis(), type, email, counterparty, amount);
+            if (!record.write(segment)) {
+                rolled(sequence);
+                if (!record.write(segment)) {
+                    throw new IllegalStateException("Journal record exceeds segment size: sequence=" + sequence);
+                }
+            }
+        }
+        if (properties.isAwaitFsync()) {
+            awaitDurable(sequence);
+        }
+        return sequence;
+    }
+
+    @PreDestroy
+    @SneakyThrows
+    void close() {
+        running = false;
+        if (flusher != null) {
+            flusher.join();
+        }
+    }
+
+    /**
+     * Forces the current segment and maps a new one, starting with the given sequence. Must be called with the
+     * journal lock held.
+     */
+    private void rolled(long sequence) {
+        segment.force();
+        try {
+            segment = JournalSegments.map(JournalSegments.path(directory, sequence), properties.getSegmentSizeBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Waits for the record to be forced. A flusher that died doesn't notify, so it's checked every fsync interval.
+     */
+    @SneakyThrows
+    private void awaitDurable(long sequence) {
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getAwaitTimeoutMs());
+        synchronized (durable) {
+            while (durableSequence < sequence) {
+                if (!flusher.isAlive()) {
+                    throw new IllegalStateException("Journal fsync is stopped: sequence=" + sequence);
+                }
+                var remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Journal record is not durable in time: sequence=" + sequence);
+                }
+                durable.wait(Math.min(remaining, Math.max(1, properties.getFsyncIntervalMs())));
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(properties.getFsyncIntervalMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                log.error("Failed to force journal segment", e);
+            }
+        }
+        sync();
+    }
+
+    /**
+     * Forces records written so far. A segment rolled meanwhile was forced on roll, so forcing the current one is
+     * enough.
+     */
+    private void sync() {
+        long sequence;
+        MappedByteBuffer current;
+        synchronized (this) {
+            sequence = lastSequence;
+            current = segment;
+        }
+        if (sequence == durableSequence) {
+            return;
+        }
+
+        current.force();
+        synchronized (durable) {
+            durableSequence = sequence;
+            durable.notifyAll();
+        }
+    }
+
+}
\ No newline at end of file
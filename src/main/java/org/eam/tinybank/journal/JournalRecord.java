@@ -0,0 +1,100 @@
+package org.eam.tinybank.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+import lombok.NonNull;
+
+/**
+ * Applied account operation, as stored in the journal. Counterparty is the receiver of a transfer, and is null for
+ * other operations. Amounts are in minor units.
+ * <p>
+ * A record is stored as: body length (int), CRC32C of the body (int), and the body: sequence (long), timestamp (long),
+ * type (byte), amount (long), email and counterparty as UTF-8 bytes, each prefixed with its length (short). Zero length
+ * marks the end of a segment, since segment files are zero-filled.
+ */
+public record JournalRecord(long sequence, long timestamp, @NonNull Type type, @NonNull String email,
+                            String counterparty, long amount) {
+
+    private static final int HEADER = Integer.BYTES * 2;
+    private static final int FIXED_BODY = Long.BYTES * 3 + Byte.BYTES + Short.BYTES * 2;
+
+    /**
+     * Writes the record at the buffer position.
+     *
+     * @return 'false' if there is not enough room, in which case the buffer is not changed
+     */
+    public boolean write(@NonNull ByteBuffer buffer) {
+        var emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        var counterpartyBytes = counterparty == null ? new byte[0] : counterparty.getBytes(StandardCharsets.UTF_8);
+        var length = FIXED_BODY + emailBytes.length + counterpartyBytes.length;
+        if (buffer.remaining() < HEADER + length) {
+            return false;
+        }
+
+        var start = buffer.position();
+        buffer.position(start + HEADER)
+            .putLong(sequence)
+            .putLong(timestamp)
+            .put((byte) type.ordinal())
+            .putLong(amount)
+            .putShort((short) emailBytes.length)
+            .put(emailBytes)
+            .putShort((short) counterpartyBytes.length)
+            .put(counterpartyBytes);
+        var end = buffer.position();
+        buffer.putInt(start, length).putInt(start + Integer.BYTES, crc(buffer, start + HEADER, length));
+        buffer.position(end);
+        return true;
+    }
+
+    /**
+     * Reads the record at the buffer position and moves the position after it.
+     *
+     * @return the record, or null at the end of written records, or at a torn or corrupted one, in which case the
+     *     position is not changed
+     */
+    public static JournalRecord read(@NonNull ByteBuffer buffer) {
+        var start = buffer.position();
+        if (buffer.remaining() < HEADER) {
+            return null;
+        }
+        var length = buffer.getInt(start);
+        if (length < FIXED_BODY || buffer.remaining() - HEADER < length
+            || buffer.getInt(start + Integer.BYTES) != crc(buffer, start + HEADER, length)) {
+            return null;
+        }
+
+        buffer.position(start + HEADER);
+        var sequence = buffer.getLong();
+        var timestamp = buffer.getLong();
+        var type = Type.values()[buffer.get()];
+        var amount = buffer.getLong();
+        var email = string(buffer);
+        var counterparty = string(buffer);
+        return new JournalRecord(sequence, timestamp, type, email, counterparty.isEmpty() ? null : counterparty,
+                                 amount);
+    }
+
+    private static String string(ByteBuffer buffer) {
+        var bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        var crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    public enum Type {
+
+        CREATE,
+        DEPOSIT,
+        WITHDRAW,
+        TRANSFER
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package org.eam.tinybank.journal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import org.eam.tinybank.domain.Money;
+
+/**
+ * Rebuilds balances from journal segments, reading records in sequence order up to the first torn or corrupted one.
+ * Balances are sums of operations, so they don't depend on the order of concurrent operations.
+ * <p>
+ * Can be run as a tool, printing balances of all accounts found in the given journal directory:
+ * {@code java -cp tiny-bank.jar -Dloader.main=org.eam.tinybank.journal.JournalReplay
+ * org.springframework.boot.loader.launch.PropertiesLauncher journal}
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class JournalReplay {
+
+    public static void main(String[] args) throws IOException {
+        balances(Path.of(args.length > 0 ? args[0] : "journal"))
+            .forEach((email, balance) -> System.out.println(email + " " + Money.toMajor(balance)));
+    }
+
+    /**
+     * Returns balances by account, in email order.
+     */
+    public static Map<String, Long> balances(@NonNull Path directory) throws IOException {
+        var balances = new TreeMap<String, Long>();
+        records(directory, r -> {
+            switch (r.type()) {
+                case CREATE -> balances.putIfAbsent(r.email(), 0L);
+                case DEPOSIT -> balances.merge(r.email(), r.amount(), Money::add);
+                case WITHDRAW -> balances.merge(r.email(), -r.amount(), Money::add);
+                case TRANSFER -> {
+                    balances.merge(r.email(), -r.amount(), Money::add);
+                    balances.merge(r.counterparty(), r.amount(), Money::add);
+                }
+            }
+        });
+        return balances;
+    }
+
+    /**
+     * Passes all valid records to the consumer, stopping at the first segment with a torn or corrupted record, since
+     * records after it can't be trusted.
+     */
+    public static void records(@NonNull Path directory, @NonNull Consumer<JournalRecord> consumer)
+        throws IOException {
+        for (var segment : JournalSegments.list(directory)) {
+            var buffer = JournalSegments.read(segment, consumer);
+            if (buffer.remaining() >= Integer.BYTES && buffer.getInt(buffer.position()) != 0) {
+                return;
+            }
+        }
+    }
+
+}
\ No newline at end of file
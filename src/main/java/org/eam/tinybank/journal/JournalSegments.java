@@ -0,0 +1,61 @@
+package org.eam.tinybank.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+/**
+ * Reads and maps segment files, named after the sequence of their first record, so the name order is the record
+ * order.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class JournalSegments {
+
+    private static final String SUFFIX = ".journal";
+
+    static List<Path> list(@NonNull Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+
+        try (var files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+
+    static Path path(@NonNull Path directory, long firstSequence) {
+        return directory.resolve("%020d%s".formatted(firstSequence, SUFFIX));
+    }
+
+    static MappedByteBuffer map(@NonNull Path segment, int size) throws IOException {
+        try (var channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                            StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * Passes all valid records of the segment to the consumer.
+     *
+     * @return the buffer positioned after the last valid record
+     */
+    static MappedByteBuffer read(@NonNull Path segment, @NonNull Consumer<JournalRecord> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (var channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        for (var record = JournalRecord.read(buffer); record != null; record = JournalRecord.read(buffer)) {
+            consumer.accept(record);
+        }
+        return buffer;
+    }
+
+}
\ No newline at end of file
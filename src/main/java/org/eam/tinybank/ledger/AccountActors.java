@@ -0,0 +1,91 @@
+package org.eam.tinybank.ledger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import org.eam.tinybank.domain.AccountEntity;
+
+/**
+ * Makes every account an actor with its own mailbox, drained by a virtual thread while it has messages, so operations
+ * of different accounts never wait for each other, unlike accounts sharing a shard in {@link LedgerShards}. Messages of
+ * the same account are processed one at a time, in arrival order.
+ * <p>
+ * NOTE that an actor is created for every requested email, including unknown ones, and is never removed.
+ */
+class AccountActors implements AccountOwners {
+
+    private final Map<String, Actor> actors = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("ledger-actor-", 0).factory());
+
+    @Override
+    public <T> T call(@NonNull String email, @NonNull Function<Map<String, AccountEntity>, T> operation) {
+        var actor = actors.computeIfAbsent(email, e -> new Actor());
+        var result = new CompletableFuture<T>();
+        actor.send(() -> {
+            try {
+                result.complete(operation.apply(actor.accounts));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @Override
+    @SneakyThrows
+    public void close() {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private class Actor {
+
+        private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final Map<String, AccountEntity> accounts = new HashMap<>(2);
+
+        void send(Runnable message) {
+            mailbox.add(message);
+            schedule();
+        }
+
+        /**
+         * Starts draining unless it's already running, so at most one thread processes messages at a time. State
+         * changes are visible to the next thread, as it's started after the flag is reset.
+         */
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            Runnable message;
+            while ((message = mailbox.poll()) != null) {
+                message.run();
+            }
+            scheduled.set(false);
+            if (!mailbox.isEmpty()) {
+                schedule();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,23 @@
+package org.eam.tinybank.ledger;
+
+import java.util.Map;
+import java.util.function.Function;
+import lombok.NonNull;
+import org.eam.tinybank.domain.AccountEntity;
+
+/**
+ * Runs operations on the single owner of an account, so its state is only ever accessed sequentially, without locks.
+ * Implementations differ in how many accounts an owner has, and which threads run them.
+ */
+interface AccountOwners extends AutoCloseable {
+
+    /**
+     * Runs given operation on the owner of the email, passing accounts of that owner, and waits for the result. The
+     * operation must not wait for other owners, to avoid deadlocks.
+     */
+    <T> T call(@NonNull String email, @NonNull Function<Map<String, AccountEntity>, T> operation);
+
+    @Override
+    void close();
+
+}
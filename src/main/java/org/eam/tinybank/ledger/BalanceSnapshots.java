@@ -0,0 +1,125 @@
+package org.eam.tinybank.ledger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.NonNull;
+import org.eam.tinybank.config.properties.AccountProperties;
+import org.eam.tinybank.domain.AccountEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bounded cache of committed account balances, so balance reads don't touch the database while snapshots are fresh.
+ * Snapshots are written through after commit of the updating transaction, and only replace older versions, since
+ * transactions of the same account may complete out of order. A snapshot expires after max staleness, which bounds
+ * staleness when an account is changed on another instance, so a missing one must be loaded from the primary, as a
+ * replica lag would add up to it.
+ * <p>
+ * An invalidated snapshot is replaced with a tombstone of its version, so a snapshot of the same or an older version
+ * committed late is not stored, and balance is loaded again instead.
+ */
+@Component
+public class BalanceSnapshots {
+
+    private final boolean enabled;
+    private final Cache<String, Snapshot> cache;
+
+    public BalanceSnapshots(AccountProperties properties, MeterRegistry registry) {
+        var snapshot = properties.getSnapshot();
+        this.enabled = snapshot.isEnabled();
+        this.cache = CacheBuilder.newBuilder()
+            .maximumSize(snapshot.getMaxSize())
+            .expireAfterWrite(Duration.ofMillis(snapshot.getMaxStalenessMs()))
+            .recordStats()
+            .build();
+        GuavaCacheMetrics.monitor(registry, cache, "balance.snapshot");
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the balance from a snapshot, or from the account read by the given loader, which must not lock it, and
+     * must read the primary, if snapshots are enabled.
+     */
+    public Optional<Long> balance(@NonNull String email,
+                                  @NonNull Function<String, Optional<AccountEntity>> loader) {
+        if (!enabled) {
+            return loader.apply(email).map(AccountEntity::getBalance);
+        }
+
+        var snapshot = cache.getIfPresent(email);
+        if (snapshot != null && !snapshot.tombstone()) {
+            return Optional.of(snapshot.balance());
+        }
+        return loader.apply(email)
+            .map(a -> {
+                put(a.getEmail(), new Snapshot(a.getBalance(), a.getVersion(), false), false);
+                return a.getBalance();
+            });
+    }
+
+    /**
+     * Stores the balance of the given account after the current transaction is committed, when its version is known.
+     */
+    public void committed(@NonNull AccountEntity account) {
+        afterCommit(() -> put(account.getEmail(), new Snapshot(account.getBalance(), account.getVersion(), false),
+                              true));
+    }
+
+    /**
+     * Stores the balance read back after the current transaction is committed, e.g. after a conditional update.
+     */
+    public void committed(@NonNull String email, long balance, long version) {
+        afterCommit(() -> put(email, new Snapshot(balance, version, false), true));
+    }
+
+    /**
+     * Replaces the snapshot with a tombstone after the current transaction is committed, when the balance is changed
+     * without changing the account version, e.g. by a striped deposit.
+     */
+    public void invalidated(@NonNull String email, long version) {
+        afterCommit(() -> {
+            if (enabled) {
+                cache.asMap().merge(email, new Snapshot(0, version, true),
+                                    (old, tombstone) -> new Snapshot(0, Math.max(old.version(), version), true));
+            }
+        });
+    }
+
+    /**
+     * Replaces an older snapshot. A committed one replaces a tombstone only if it's newer, since a commit of the same
+     * version was invalidated, while a loaded one of the same version replaces it, as it's read from the primary.
+     */
+    private void put(String email, Snapshot updated, boolean committed) {
+        if (enabled) {
+            cache.asMap().merge(email, updated, (old, ignored) -> updated.version() > old.version()
+                || updated.version() == old.version() && !(committed && old.tombstone()) ? updated : old);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Snapshot(long balance, long version, boolean tombstone) {
+
+    }
+
+}
\ No newline at end of file
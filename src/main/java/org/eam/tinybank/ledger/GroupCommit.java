@@ -0,0 +1,170 @@
+package org.eam.tinybank.ledger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.config.properties.HistoryProperties;
+import org.eam.tinybank.repository.HistoryWriter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Leader/follower group commit of ledger operations. A caller queues its operation, and either becomes the leader, or
+ * waits for the current one. The leader collects queued operations until the group size is reached or the window is
+ * elapsed, and applies them in one transaction, so their history is inserted with one batched statement right before
+ * the commit, see {@link HistoryWriter}. Callers return only after their group is committed, and balance changes and
+ * history of a group are committed atomically.
+ * <p>
+ * If an operation of a group fails, or the group fails to commit, the group is rolled back, and its operations are
+ * applied again one by one, so a failure is reported only to the caller of the failed operation.
+ * <p>
+ * NOTE that groups are committed one at a time, so group commit trades concurrency of transactions for fewer commits
+ * and history inserts.
+ */
+@Component
+@Log4j2
+class GroupCommit {
+
+    private final TransactionTemplate transactionTemplate;
+    private final HistoryProperties.Batch properties;
+    private final BlockingQueue<Pending<?>> queue = new LinkedBlockingQueue<>();
+    private boolean leading;
+
+    GroupCommit(TransactionTemplate transactionTemplate, HistoryProperties properties) {
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties.getBatch();
+    }
+
+    /**
+     * Applies the operation in a group, or in its own transaction, if group commit is disabled, or a transaction is
+     * already active, which the operation must join.
+     */
+    <T> T execute(@NonNull Supplier<T> operation) {
+        if (!properties.isEnabled() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(s -> operation.get());
+        }
+
+        var pending = new Pending<>(operation);
+        queue.add(pending);
+        while (!pending.result.isDone()) {
+            if (leadership()) {
+                try {
+                    while (!pending.result.isDone()) {
+                        commit(group());
+                    }
+                } finally {
+                    steppedDown();
+                }
+            } else {
+                awaited(pending);
+            }
+        }
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Collects queued operations until the group size is reached, or the window is elapsed.
+     */
+    private List<Pending<?>> group() {
+        var group = new ArrayList<Pending<?>>();
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getWindowMs());
+        queue.drainTo(group, properties.getSize());
+        try {
+            while (group.size() < properties.getSize()) {
+                var next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                group.add(next);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return group;
+    }
+
+    /**
+     * Applies the group in one transaction, and completes its operations after commit. Operations not completed
+     * because of an error are failed, so their callers don't wait forever.
+     */
+    private void commit(List<Pending<?>> group) {
+        try {
+            transactionTemplate.executeWithoutResult(s -> group.forEach(Pending::apply));
+            group.forEach(Pending::complete);
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.getFirst().result.completeExceptionally(e);
+            } else {
+                log.debug("Group failed, applying operations one by one: size={}", group.size(), e);
+                group.forEach(p -> commit(List.of(p)));
+            }
+        } finally {
+            group.forEach(p -> p.result.completeExceptionally(new IllegalStateException("Group was not committed")));
+            completed();
+        }
+    }
+
+    private synchronized boolean leadership() {
+        if (leading) {
+            return false;
+        }
+        leading = true;
+        return true;
+    }
+
+    private synchronized void steppedDown() {
+        leading = false;
+        notifyAll();
+    }
+
+    private synchronized void completed() {
+        notifyAll();
+    }
+
+    /**
+     * Waits until the operation is completed by the leader, or the leader steps down, and the caller may lead.
+     */
+    @SneakyThrows
+    private synchronized void awaited(Pending<?> pending) {
+        while (leading && !pending.result.isDone()) {
+            wait();
+        }
+    }
+
+    /**
+     * Operation of a caller, with its result kept until the group is committed.
+     */
+    private static final class Pending<T> {
+
+        private final Supplier<T> operation;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T applied;
+
+        private Pending(Supplier<T> operation) {
+            this.operation = operation;
+        }
+
+        private void apply() {
+            applied = operation.get();
+        }
+
+        private void complete() {
+            result.complete(applied);
+        }
+
+    }
+
+}
\ No newline at end of file
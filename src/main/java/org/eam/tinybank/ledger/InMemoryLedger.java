@@ -0,0 +1,297 @@
+package org.eam.tinybank.ledger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.BatchItem;
+import org.eam.tinybank.config.properties.LedgerProperties;
+import org.eam.tinybank.config.properties.LedgerProperties.Execution;
+import org.eam.tinybank.config.properties.LedgerProperties.Recovery;
+import org.eam.tinybank.domain.AccountEntity;
+import org.eam.tinybank.domain.HistoryEntity;
+import org.eam.tinybank.domain.Money;
+import org.eam.tinybank.repository.AccountRepository;
+import org.eam.tinybank.repository.HistoryRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps all account balances in memory, each account owned by a single writer, either one of {@link LedgerShards} or
+ * its own actor of {@link AccountActors}, and persists balance and history changes with {@link WriteBehindQueue}. So a
+ * request only waits for the owner of the account, but not for the database, and takes no row locks. Account creation
+ * is still synchronous, as it's rare and must not be lost.
+ * <p>
+ * A transfer is an exchange of messages between the owners, so no owner ever waits for another one: the amount is
+ * reserved on the sender, i.e. subtracted from its balance without being persisted, then deposited to the recipient,
+ * which enqueues both sides of the transfer to be persisted at once, or, if the recipient is missing, the reservation
+ * is released. The reservation is released as well, if the write-behind queue is stopped, so memory is unchanged by a
+ * failed operation.
+ * <p>
+ * NOTE that balances are owned by a single instance, so the profile must not be used with several instances sharing
+ * the same database.
+ */
+@Component
+@Profile("ledger")
+@Log4j2
+public class InMemoryLedger implements Ledger {
+
+    private final AccountRepository accountRepository;
+    private final HistoryRepository historyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Recovery recovery;
+    private final AccountOwners owners;
+    private final WriteBehindQueue writeBehind;
+
+    public InMemoryLedger(AccountRepository accountRepository,
+                          HistoryRepository historyRepository,
+                          TransactionTemplate transactionTemplate,
+                          LedgerProperties properties) {
+        this.accountRepository = accountRepository;
+        this.historyRepository = historyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.recovery = properties.getRecovery();
+        this.owners = properties.getExecution() == Execution.ACTORS
+            ? new AccountActors()
+            : new LedgerShards(properties.getShards());
+        this.writeBehind = new WriteBehindQueue(accountRepository, historyRepository, transactionTemplate,
+                                                properties.getBatchSize(), properties.getFlushIntervalMs(),
+                                                properties.getMaxAttempts());
+    }
+
+    /**
+     * Loads all accounts into their owners, either as they are stored, or rebuilding balances from history, which is
+     * the source of truth after a crash, as balance and history of the same operation are always persisted together.
+     */
+    @PostConstruct
+    void load() {
+        var accounts = new HashMap<String, AccountEntity>();
+        accountRepository.findAll().forEach(a -> accounts.put(a.getEmail(), a));
+        if (recovery == Recovery.HISTORY) {
+            recovered(accounts);
+        }
+        accounts.values().forEach(a -> owners.call(a.getEmail(), m -> m.put(a.getEmail(), a)));
+
+        log.info("Ledger loaded: accounts={}, recovery={}, owners={}", accounts.size(), recovery,
+                 owners.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    void close() {
+        owners.close();
+        writeBehind.close();
+    }
+
+    @Override
+    public ApiResponse create(@NonNull String email) {
+        return owners.call(email, m -> {
+            if (m.containsKey(email)) {
+                return ApiResponse.accountExists();
+            }
+            m.put(email, accountRepository.save(AccountEntity.from(email)));
+            return ApiResponse.accountCreated();
+        });
+    }
+
+    @Override
+    public ApiResponse deposit(@NonNull String email, long amount) {
+        return owners.call(email, m -> {
+            var account = m.get(email);
+            if (account == null) {
+                return ApiResponse.accountNotFound(email);
+            }
+            var updated = applied(m, account.deposited(amount), HistoryEntity.deposit(email, amount));
+            return ApiResponse.deposited(updated.getBalance());
+        });
+    }
+
+    @Override
+    public ApiResponse withdraw(@NonNull String email, long amount) {
+        return owners.call(email, m -> {
+            var account = m.get(email);
+            if (account == null) {
+                return ApiResponse.accountNotFound(email);
+            }
+            if (!account.canWithdraw(amount)) {
+                return ApiResponse.insufficientFunds(email);
+            }
+            var updated = applied(m, account.withdrawed(amount), HistoryEntity.withdraw(email, amount));
+            return ApiResponse.withdrawed(updated.getBalance());
+        });
+    }
+
+    @Override
+    public ApiResponse transfer(@NonNull String emailFrom, @NonNull String emailTo, long amount) {
+        var reserved = owners.call(emailFrom, m -> {
+            var account = m.get(emailFrom);
+            if (account == null) {
+                return ApiResponse.accountNotFound(emailFrom);
+            }
+            if (!account.canWithdraw(amount)) {
+                return ApiResponse.insufficientFunds(emailFrom);
+            }
+            m.put(emailFrom, account.withdrawed(amount));
+            return null;
+        });
+        if (reserved != null) {
+            return reserved;
+        }
+
+        boolean deposited;
+        try {
+            deposited = owners.call(emailTo, m -> {
+                var account = m.get(emailTo);
+                if (account == null) {
+                    return false;
+                }
+                writeBehind.enqueue(HistoryEntity.transferTo(emailFrom, emailTo, amount),
+                                    HistoryEntity.receiveFrom(emailTo, emailFrom, amount));
+                m.put(emailTo, account.deposited(amount));
+                return true;
+            });
+        } catch (RuntimeException e) {
+            deposited(emailFrom, amount);
+            throw e;
+        }
+
+        if (deposited) {
+            return ApiResponse.transferred(emailFrom, emailTo);
+        }
+        deposited(emailFrom, amount);
+        return ApiResponse.accountNotFound(emailTo);
+    }
+
+    /**
+     * Applies an atomic batch as net balance changes: items are checked one by one against copies of the involved
+     * accounts, as {@link JpaLedger} does against locked rows, then net debits are reserved on their owners, like
+     * transfers are, and net credits are deposited only when all reservations succeed. History of the whole batch is
+     * persisted at once. If a reservation fails, as the balance was changed concurrently, the taken ones are released,
+     * and the batch is rejected.
+     * <p>
+     * NOTE that responses report balances of the copies, while concurrent operations on the same accounts may be
+     * applied before the batch.
+     */
+    @Override
+    public List<ApiResponse> batch(@NonNull List<BatchItem> items, boolean atomic) {
+        if (!atomic) {
+            return Ledger.super.batch(items, false);
+        }
+
+        var emails = new TreeSet<String>();
+        items.forEach(i -> emails.addAll(i.emailsToCheck()));
+        var batch = new LedgerBatch(emails.stream()
+                                        .flatMap(e -> owners.call(e, m -> Optional.ofNullable(m.get(e))).stream())
+                                        .toList());
+        var responses = items.stream().map(batch::apply).toList();
+        if (responses.stream().anyMatch(ApiResponse::failed)) {
+            return responses.stream().map(r -> r.failed() ? r : ApiResponse.notApplied()).toList();
+        }
+
+        var changes = new TreeMap<String, Long>();
+        batch.history().forEach(h -> changes.merge(h.getEmail(), h.balanceChange(), Money::add));
+        var reserved = new ArrayList<String>();
+        for (var change : changes.entrySet()) {
+            if (change.getValue() < 0) {
+                if (!reserved(change.getKey(), -change.getValue())) {
+                    reserved.forEach(e -> deposited(e, -changes.get(e)));
+                    return items.stream().map(i -> declined(i, change.getKey())).toList();
+                }
+                reserved.add(change.getKey());
+            }
+        }
+
+        try {
+            writeBehind.enqueue(batch.history().toArray(HistoryEntity[]::new));
+        } catch (RuntimeException e) {
+            reserved.forEach(email -> deposited(email, -changes.get(email)));
+            throw e;
+        }
+        changes.forEach((email, change) -> {
+            if (change > 0) {
+                deposited(email, change);
+            }
+        });
+        return responses;
+    }
+
+    @Override
+    public ApiResponse balance(@NonNull String email) {
+        return owners.call(email, m -> m.containsKey(email)
+            ? ApiResponse.balance(m.get(email).getBalance())
+            : ApiResponse.accountNotFound(email));
+    }
+
+    @Override
+    public void flush() {
+        writeBehind.flush();
+    }
+
+    /**
+     * Must be called by the owner of the account. The change is enqueued to write-behind queue first, so memory stays
+     * unchanged if the queue is stopped.
+     */
+    private AccountEntity applied(Map<String, AccountEntity> accounts,
+                                  AccountEntity updated,
+                                  HistoryEntity history) {
+        writeBehind.enqueue(history);
+        accounts.put(updated.getEmail(), updated);
+        return updated;
+    }
+
+    /**
+     * Subtracts amount from the balance in memory, if it's sufficient, without persisting it.
+     */
+    private boolean reserved(String email, long amount) {
+        return owners.call(email, m -> {
+            var account = m.get(email);
+            if (!account.canWithdraw(amount)) {
+                return false;
+            }
+            m.put(email, account.withdrawed(amount));
+            return true;
+        });
+    }
+
+    /**
+     * Adds amount to the balance in memory, without persisting it.
+     */
+    private void deposited(String email, long amount) {
+        owners.call(email, m -> m.put(email, m.get(email).deposited(amount)));
+    }
+
+    /**
+     * Returns insufficient funds for items debiting the given account, as it's the reason of rejection.
+     */
+    private static ApiResponse declined(BatchItem item, String email) {
+        var debited = item.withdraw() != null ? item.withdraw().email()
+            : item.transfer() != null ? item.transfer().emailFrom() : null;
+        return email.equals(debited) ? ApiResponse.insufficientFunds(email) : ApiResponse.notApplied();
+    }
+
+    private void recovered(Map<String, AccountEntity> accounts) {
+        var replayed = new HashMap<String, AccountEntity>();
+        accounts.keySet().forEach(email -> replayed.put(email, AccountEntity.from(email)));
+        historyRepository.totals().forEach(t -> replayed.computeIfPresent(
+            t.getEmail(),
+            (email, a) -> t.getType().credit() ? a.deposited(t.getAmount()) : a.withdrawed(t.getAmount())));
+
+        transactionTemplate.executeWithoutResult(s -> replayed.values().forEach(a -> {
+            if (accounts.get(a.getEmail()).getBalance() != a.getBalance()) {
+                log.warn("Balance restored from history: email={}, stored={}, restored={}",
+                         a.getEmail(), accounts.get(a.getEmail()).getBalance(), a.getBalance());
+                accountRepository.updateBalance(a.getEmail(), a.getBalance());
+            }
+        }));
+        accounts.putAll(replayed);
+    }
+
+}
\ No newline at end of file
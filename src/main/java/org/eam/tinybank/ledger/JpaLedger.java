@@ -0,0 +1,290 @@
+package org.eam.tinybank.ledger;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.BatchItem;
+import org.eam.tinybank.config.properties.AccountProperties;
+import org.eam.tinybank.domain.AccountEntity;
+import org.eam.tinybank.domain.HistoryEntity;
+import org.eam.tinybank.domain.Money;
+import org.eam.tinybank.repository.AccountRepository;
+import org.eam.tinybank.repository.HistoryWriter;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Default ledger, which applies every operation directly to the database within one transaction, excluding lost
+ * updates with the configured {@link LockingStrategy}. An operation failed because of a concurrent update, e.g.
+ * optimistic lock conflict or lock timeout, is retried as a whole in a new transaction, with exponential backoff.
+ * <p>
+ * Balance reads don't lock, and are served from {@link BalanceSnapshots}, which are updated after commit. Deposits to
+ * {@link StripedAccounts} update a random slot instead of the account row, and slots are consolidated into the account
+ * row whenever it's locked.
+ */
+@Component
+@Profile("!ledger")
+@AllArgsConstructor
+@Log4j2
+public class JpaLedger implements Ledger {
+
+    private static final TransactionDefinition READ_ONLY = readOnly();
+
+    private final AccountRepository accountRepository;
+    private final HistoryWriter historyWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountProperties properties;
+    private final BalanceSnapshots snapshots;
+    private final StripedAccounts stripes;
+    private final GroupCommit groupCommit;
+
+    /**
+     * The call is idempotent, so no transaction is needed.
+     */
+    @Override
+    public ApiResponse create(@NonNull String email) {
+        if (accountRepository.existsById(email)) {
+            return ApiResponse.accountExists();
+        } else {
+            accountRepository.save(AccountEntity.from(email));
+            stripes.create(email);
+            return ApiResponse.accountCreated();
+        }
+    }
+
+    @Override
+    public ApiResponse deposit(@NonNull String email, long amount) {
+        if (stripes.striped(email)) {
+            var striped = inTransaction(() -> stripes.deposited(email, amount)
+                ? Optional.of(deposited(email, amount, stripedBalance(email)))
+                : Optional.<ApiResponse>empty());
+            if (striped.isPresent()) {
+                return striped.get();
+            }
+        }
+        if (strategy() == LockingStrategy.CONDITIONAL_UPDATE) {
+            return inTransaction(() -> accountRepository.deposit(email, amount) == 0
+                ? ApiResponse.accountNotFound(email)
+                : deposited(email, amount, updatedBalance(email)));
+        }
+        return updateInTransaction(email,
+                                   a -> Optional.empty(),
+                                   a -> a.deposited(amount),
+                                   a -> deposited(a.getEmail(), amount, a.getBalance()));
+    }
+
+    /**
+     * With conditional update, the number of updated rows is zero either if account does not exist, or if it has
+     * insufficient funds, so account existence is checked only in this case. Striped accounts are always locked, to
+     * check the whole balance.
+     */
+    @Override
+    public ApiResponse withdraw(@NonNull String email, long amount) {
+        if (strategy() == LockingStrategy.CONDITIONAL_UPDATE && !stripes.striped(email)) {
+            return inTransaction(() -> {
+                if (accountRepository.withdraw(email, amount) == 0) {
+                    return accountRepository.existsById(email)
+                        ? ApiResponse.insufficientFunds(email)
+                        : ApiResponse.accountNotFound(email);
+                }
+                return withdrawed(email, amount, updatedBalance(email));
+            });
+        }
+        return updateInTransaction(email,
+                                   a -> a.canWithdraw(amount)
+                                       ? Optional.empty()
+                                       : Optional.of(ApiResponse.insufficientFunds(a.getEmail())),
+                                   a -> a.withdrawed(amount),
+                                   a -> withdrawed(a.getEmail(), amount, a.getBalance()));
+    }
+
+    /**
+     * Covers all invariants: when any account does not exist, when sender account has insufficient funds, and when
+     * withdrawal is possible. To avoid deadlocks, locking order is always the same, based on emails comparison for
+     * simplicity, so the method does not look very pretty.
+     */
+    @Override
+    public ApiResponse transfer(@NonNull String emailFrom, @NonNull String emailTo, long amount) {
+        return inTransaction(() -> {
+            Optional<AccountEntity> from;
+            Optional<AccountEntity> to;
+            if (emailFrom.compareTo(emailTo) < 0) {
+                from = locked(emailFrom);
+                to = locked(emailTo);
+            } else {
+                to = locked(emailTo);
+                from = locked(emailFrom);
+            }
+
+            return to
+                .map(aTo -> from.map(aFrom -> aFrom.canWithdraw(amount)
+                        ? transfer(aFrom, aTo, amount)
+                        : ApiResponse.insufficientFunds(emailFrom))
+                    .orElseGet(() -> ApiResponse.accountNotFound(emailFrom)))
+                .orElseGet(() -> ApiResponse.accountNotFound(emailTo));
+        });
+    }
+
+    /**
+     * Snapshot misses are read from the primary, as a snapshot is served for max staleness after it's loaded, while
+     * without snapshots balances are read from a replica, if it's configured.
+     */
+    @Override
+    public ApiResponse balance(@NonNull String email) {
+        return snapshots.balance(email, e -> unlocked(e, !snapshots.enabled()))
+            .map(ApiResponse::balance)
+            .orElseGet(() -> ApiResponse.accountNotFound(email));
+    }
+
+    /**
+     * Locks all involved accounts in one pass, in the same email order as transfers do, applies items in memory, and
+     * stores changes with batched statements. If an atomic batch has a failed item, nothing is stored.
+     */
+    @Override
+    public List<ApiResponse> batch(@NonNull List<BatchItem> items, boolean atomic) {
+        var emails = new TreeSet<String>();
+        items.forEach(i -> emails.addAll(i.emailsToCheck()));
+
+        return inTransaction(() -> {
+            var batch = new LedgerBatch(accountRepository.findAllLocked(emails, strategy().getLockMode()).stream()
+                                            .map(this::consolidated)
+                                            .toList());
+            var responses = items.stream().map(batch::apply).toList();
+            if (atomic && responses.stream().anyMatch(ApiResponse::failed)) {
+                return responses.stream().map(r -> r.failed() ? r : ApiResponse.notApplied()).toList();
+            }
+
+            accountRepository.saveAll(batch.changed()).forEach(snapshots::committed);
+            historyWriter.write(batch.history().toArray(HistoryEntity[]::new));
+            return responses;
+        });
+    }
+
+    private ApiResponse updateInTransaction(String email,
+                                            Function<AccountEntity, Optional<ApiResponse>> check,
+                                            Function<AccountEntity, AccountEntity> update,
+                                            Function<AccountEntity, ApiResponse> response) {
+        return inTransaction(() -> locked(email)
+            .map(a -> check.apply(a)
+                .orElseGet(() -> response.apply(saved(update.apply(a)))))
+            .orElseGet(() -> ApiResponse.accountNotFound(email)));
+    }
+
+    private ApiResponse deposited(String email, long amount, long balance) {
+        historyWriter.write(HistoryEntity.deposit(email, amount));
+        return ApiResponse.deposited(balance);
+    }
+
+    private ApiResponse withdrawed(String email, long amount, long balance) {
+        historyWriter.write(HistoryEntity.withdraw(email, amount));
+        return ApiResponse.withdrawed(balance);
+    }
+
+    /**
+     * Reads the balance after a conditional update, which doesn't return it, and stores it with its version.
+     */
+    private long updatedBalance(String email) {
+        var stored = accountRepository.findStoredBalance(email).orElseThrow();
+        snapshots.committed(email, stored.getBalance(), stored.getVersion());
+        return stored.getBalance();
+    }
+
+    /**
+     * Reads the whole balance after a deposit to a slot, which doesn't change the account version, so the snapshot is
+     * invalidated.
+     */
+    private long stripedBalance(String email) {
+        var stored = accountRepository.findStoredBalance(email).orElseThrow();
+        snapshots.invalidated(email, stored.getVersion());
+        return Money.add(stored.getBalance(), stripes.balance(email));
+    }
+
+    private AccountEntity saved(AccountEntity account) {
+        var saved = accountRepository.save(account);
+        snapshots.committed(saved);
+        return saved;
+    }
+
+    private ApiResponse transfer(AccountEntity aFrom, AccountEntity aTo, long amount) {
+        saved(aFrom.withdrawed(amount));
+        saved(aTo.deposited(amount));
+        historyWriter.write(HistoryEntity.transferTo(aFrom.getEmail(), aTo.getEmail(), amount),
+                            HistoryEntity.receiveFrom(aTo.getEmail(), aFrom.getEmail(), amount));
+
+        return ApiResponse.transferred(aFrom.getEmail(), aTo.getEmail());
+    }
+
+    /**
+     * Reads the account without locking, with the whole balance of a striped account, either from the primary, or in a
+     * read-only transaction, so it's served by a replica, if it's configured.
+     */
+    private Optional<AccountEntity> unlocked(String email, boolean replica) {
+        var template = replica
+            ? new TransactionTemplate(transactionTemplate.getTransactionManager(), READ_ONLY)
+            : transactionTemplate;
+        return template.execute(s -> {
+            var account = accountRepository.findUnlocked(email);
+            return stripes.striped(email) ? account.map(a -> a.deposited(stripes.balance(email))) : account;
+        });
+    }
+
+    private Optional<AccountEntity> locked(String email) {
+        return accountRepository.findLocked(email, strategy().getLockMode()).map(this::consolidated);
+    }
+
+    /**
+     * Moves balances of striped account slots to the locked account row, so it holds the whole balance. The row is
+     * saved at once, since slots are emptied even if the operation is declined afterward.
+     */
+    private AccountEntity consolidated(AccountEntity account) {
+        var slots = stripes.emptied(account.getEmail());
+        return slots == 0 ? account : saved(account.deposited(slots));
+    }
+
+    private static TransactionDefinition readOnly() {
+        var definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+        return definition;
+    }
+
+    private LockingStrategy strategy() {
+        return properties.getLocking().getStrategy();
+    }
+
+    /**
+     * Runs the operation in a new transaction, or in a group, see {@link GroupCommit}, retrying it on concurrent update
+     * failures, until max attempts are made. An operation joining the caller transaction is not retried, since the
+     * transaction is rolled back as a whole, and only its owner can retry it.
+     */
+    @SneakyThrows
+    private <T> T inTransaction(Supplier<T> operation) {
+        var locking = properties.getLocking();
+        for (var attempt = 1; ; attempt++) {
+            try {
+                return groupCommit.execute(operation);
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= locking.getMaxAttempts()
+                    || TransactionSynchronizationManager.isActualTransactionActive()) {
+                    throw e;
+                }
+                log.debug("Retrying after concurrent update: attempt={}, strategy={}", attempt, locking.getStrategy());
+                var backoff = locking.getBackoffMs() << (attempt - 1);
+                Thread.sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+            }
+        }
+    }
+
+}
\ No newline at end of file
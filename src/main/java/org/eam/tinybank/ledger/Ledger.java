@@ -0,0 +1,48 @@
+package org.eam.tinybank.ledger;
+
+import java.util.List;
+import lombok.NonNull;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.BatchItem;
+
+/**
+ * Applies account operations to balances, when all request validations were passed. Implementations differ in where
+ * balances live and how they are persisted, and are switched by Spring profiles. Amounts are in minor units, see
+ * {@link org.eam.tinybank.domain.Money}.
+ */
+public interface Ledger {
+
+    ApiResponse create(@NonNull String email);
+
+    ApiResponse deposit(@NonNull String email, long amount);
+
+    ApiResponse withdraw(@NonNull String email, long amount);
+
+    ApiResponse transfer(@NonNull String emailFrom, @NonNull String emailTo, long amount);
+
+    ApiResponse balance(@NonNull String email);
+
+    /**
+     * Applies batch items one by one, in the given order, so atomic batches are not supported by default, and all their
+     * items are declined. Ledgers able to apply a batch atomically override it.
+     */
+    default List<ApiResponse> batch(@NonNull List<BatchItem> items, boolean atomic) {
+        if (atomic) {
+            return items.stream().map(i -> ApiResponse.atomicBatchUnsupported()).toList();
+        }
+
+        return items.stream()
+            .map(i -> i.deposit() != null ? deposit(i.deposit().email(), i.deposit().minorAmount())
+                : i.withdraw() != null ? withdraw(i.withdraw().email(), i.withdraw().minorAmount())
+                : transfer(i.transfer().emailFrom(), i.transfer().emailTo(), i.transfer().minorAmount()))
+            .toList();
+    }
+
+    /**
+     * Blocks until all applied operations are visible to repository reads, e.g. history. Does nothing by default, as
+     * operations are usually persisted before returning.
+     */
+    default void flush() {
+    }
+
+}
\ No newline at end of file
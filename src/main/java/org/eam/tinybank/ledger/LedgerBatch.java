@@ -0,0 +1,95 @@
+package org.eam.tinybank.ledger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.NonNull;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.BatchItem;
+import org.eam.tinybank.domain.AccountEntity;
+import org.eam.tinybank.domain.HistoryEntity;
+
+/**
+ * Applies batch items in memory to accounts locked or copied beforehand, collecting changed accounts and history
+ * entries, so they can be stored at once with batched statements. Every item sees the result of previous ones.
+ */
+class LedgerBatch {
+
+    private final Map<String, AccountEntity> accounts = new HashMap<>();
+    private final Map<String, AccountEntity> changed = new LinkedHashMap<>();
+    private final List<HistoryEntity> history = new ArrayList<>();
+
+    LedgerBatch(@NonNull Collection<AccountEntity> locked) {
+        locked.forEach(a -> accounts.put(a.getEmail(), a));
+    }
+
+    ApiResponse apply(@NonNull BatchItem item) {
+        if (item.deposit() != null) {
+            return deposit(item.deposit().email(), item.deposit().minorAmount());
+        } else if (item.withdraw() != null) {
+            return withdraw(item.withdraw().email(), item.withdraw().minorAmount());
+        } else {
+            return transfer(item.transfer().emailFrom(), item.transfer().emailTo(), item.transfer().minorAmount());
+        }
+    }
+
+    Collection<AccountEntity> changed() {
+        return changed.values();
+    }
+
+    List<HistoryEntity> history() {
+        return history;
+    }
+
+    private ApiResponse deposit(String email, long amount) {
+        var account = accounts.get(email);
+        if (account == null) {
+            return ApiResponse.accountNotFound(email);
+        }
+
+        history.add(HistoryEntity.deposit(email, amount));
+        return ApiResponse.deposited(updated(account.deposited(amount)).getBalance());
+    }
+
+    private ApiResponse withdraw(String email, long amount) {
+        var account = accounts.get(email);
+        if (account == null) {
+            return ApiResponse.accountNotFound(email);
+        }
+        if (!account.canWithdraw(amount)) {
+            return ApiResponse.insufficientFunds(email);
+        }
+
+        history.add(HistoryEntity.withdraw(email, amount));
+        return ApiResponse.withdrawed(updated(account.withdrawed(amount)).getBalance());
+    }
+
+    private ApiResponse transfer(String emailFrom, String emailTo, long amount) {
+        if (!accounts.containsKey(emailTo)) {
+            return ApiResponse.accountNotFound(emailTo);
+        }
+        var from = accounts.get(emailFrom);
+        if (from == null) {
+            return ApiResponse.accountNotFound(emailFrom);
+        }
+        if (!from.canWithdraw(amount)) {
+            return ApiResponse.insufficientFunds(emailFrom);
+        }
+
+        updated(from.withdrawed(amount));
+        updated(accounts.get(emailTo).deposited(amount));
+        history.add(HistoryEntity.transferTo(emailFrom, emailTo, amount));
+        history.add(HistoryEntity.receiveFrom(emailTo, emailFrom, amount));
+        return ApiResponse.transferred(emailFrom, emailTo);
+    }
+
+    private AccountEntity updated(AccountEntity account) {
+        accounts.put(account.getEmail(), account);
+        changed.put(account.getEmail(), account);
+        return account;
+    }
+
+}
\ No newline at end of file
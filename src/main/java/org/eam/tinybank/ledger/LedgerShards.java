@@ -0,0 +1,57 @@
+package org.eam.tinybank.ledger;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import org.eam.tinybank.domain.AccountEntity;
+
+/**
+ * Partitions accounts across single-threaded shards by email hash, so every account has exactly one writer thread, and
+ * its state is never shared. Callers submit operations to the owning shard and wait for the result.
+ */
+class LedgerShards implements AccountOwners {
+
+    private final List<Shard> shards;
+
+    LedgerShards(int count) {
+        var factory = Thread.ofPlatform().name("ledger-shard-", 0).daemon().factory();
+        shards = IntStream.range(0, count)
+            .mapToObj(i -> new Shard(Executors.newSingleThreadExecutor(factory), new HashMap<>()))
+            .toList();
+    }
+
+    @Override
+    public <T> T call(@NonNull String email, @NonNull Function<Map<String, AccountEntity>, T> operation) {
+        var shard = shards.get(Math.floorMod(email.hashCode(), shards.size()));
+        try {
+            return CompletableFuture.supplyAsync(() -> operation.apply(shard.accounts()), shard.executor()).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @Override
+    @SneakyThrows
+    public void close() {
+        for (var shard : shards) {
+            shard.executor().shutdown();
+        }
+        for (var shard : shards) {
+            shard.executor().awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private record Shard(ExecutorService executor, Map<String, AccountEntity> accounts) {
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package org.eam.tinybank.ledger;
+
+import jakarta.persistence.LockModeType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Defines how concurrent updates of the same account are excluded by {@link JpaLedger}.
+ */
+@AllArgsConstructor
+@Getter
+public enum LockingStrategy {
+
+    /**
+     * Shared row lock on read, other readers are not blocked until the row is updated
+     */
+    PESSIMISTIC_READ(LockModeType.PESSIMISTIC_READ),
+    /**
+     * Exclusive row lock on read, so concurrent updates are queued before reading
+     */
+    PESSIMISTIC_WRITE(LockModeType.PESSIMISTIC_WRITE),
+    /**
+     * No lock on read, account version is checked on update, and the whole operation is retried on conflict
+     */
+    OPTIMISTIC(LockModeType.NONE),
+    /**
+     * Deposit and withdrawal are applied with a single conditional update statement, holding the row lock only for the
+     * rest of the transaction, other operations use exclusive row locks on read
+     */
+    CONDITIONAL_UPDATE(LockModeType.PESSIMISTIC_WRITE);
+
+    private final LockModeType lockMode;
+
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package org.eam.tinybank.ledger;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import lombok.NonNull;
+import org.eam.tinybank.config.properties.AccountProperties;
+import org.eam.tinybank.domain.AccountSlotEntity;
+import org.eam.tinybank.domain.Money;
+import org.eam.tinybank.repository.AccountSlotRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spreads balances of configured accounts over slots, so a deposit updates a random slot row, and deposits to the same
+ * account don't wait for each other. Withdrawals need the whole balance, so slot balances are moved to the account row,
+ * which must be locked beforehand, with all slots locked in slot order.
+ * <p>
+ * NOTE that slots are created with the account, so an account created before it was configured as striped is updated
+ * as a regular one.
+ */
+@Component
+public class StripedAccounts {
+
+    private final AccountSlotRepository slotRepository;
+    private final AccountProperties.Striping properties;
+
+    public StripedAccounts(AccountSlotRepository slotRepository, AccountProperties properties) {
+        this.slotRepository = slotRepository;
+        this.properties = properties.getStriping();
+    }
+
+    public boolean striped(@NonNull String email) {
+        return properties.getSlots() > 1 && properties.getAccounts().contains(email);
+    }
+
+    public void create(@NonNull String email) {
+        if (striped(email)) {
+            slotRepository.saveAll(IntStream.range(0, properties.getSlots())
+                                       .mapToObj(slot -> AccountSlotEntity.from(email, slot))
+                                       .toList());
+        }
+    }
+
+    /**
+     * Adds amount to a random slot.
+     *
+     * @return 'false' if the account is not striped, or has no slots
+     */
+    public boolean deposited(@NonNull String email, long amount) {
+        return striped(email)
+            && slotRepository.deposit(email, ThreadLocalRandom.current().nextInt(properties.getSlots()), amount) > 0;
+    }
+
+    /**
+     * Locks all slots and empties them, so their balance can be added to the account row in the same transaction.
+     *
+     * @return the sum of slot balances, zero if the account is not striped
+     */
+    public long emptied(@NonNull String email) {
+        if (!striped(email)) {
+            return 0;
+        }
+
+        var balance = slotRepository.findAllLocked(email).stream()
+            .mapToLong(AccountSlotEntity::getBalance)
+            .reduce(0, Money::add);
+        if (balance != 0) {
+            slotRepository.empty(email);
+        }
+        return balance;
+    }
+
+    /**
+     * Returns the sum of slot balances without locking, zero if the account is not striped.
+     */
+    public long balance(@NonNull String email) {
+        return striped(email) ? slotRepository.sumBalance(email) : 0;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,163 @@
+package org.eam.tinybank.ledger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.domain.HistoryEntity;
+import org.eam.tinybank.domain.Money;
+import org.eam.tinybank.repository.AccountRepository;
+import org.eam.tinybank.repository.HistoryRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Persists history of operations asynchronously, in batches, each batch in its own transaction, together with balance
+ * changes implied by it. All entries of an operation, e.g. both sides of a transfer, are enqueued at once, so they are
+ * always in the same batch. Balance changes of an account within a batch are summed up into one update, which adds to
+ * the stored balance. A credit must be enqueued no later than it's applied in memory, and a debit no earlier, so a
+ * stored balance never goes below the one in memory.
+ * <p>
+ * A failed batch is retried with backoff, with new history entities every time, since ids were assigned to the failed
+ * ones. When max attempts are made, the queue stops: the failure is logged with the whole batch, and both enqueueing
+ * and flushing fail from then on, as balances in memory are ahead of stored ones, until the ledger is restarted.
+ */
+@Log4j2
+class WriteBehindQueue implements AutoCloseable {
+
+    private final BlockingQueue<List<HistoryEntity>> queue = new LinkedBlockingQueue<>();
+    private final AccountRepository accountRepository;
+    private final HistoryRepository historyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int maxAttempts;
+    private final Thread flusher;
+    private volatile boolean running = true;
+    private long enqueued; // guarded by this
+    private long persisted; // guarded by this
+    private RuntimeException failure; // guarded by this
+
+    WriteBehindQueue(AccountRepository accountRepository,
+                     HistoryRepository historyRepository,
+                     TransactionTemplate transactionTemplate,
+                     int batchSize,
+                     long flushIntervalMs,
+                     int maxAttempts) {
+        this.accountRepository = accountRepository;
+        this.historyRepository = historyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxAttempts = maxAttempts;
+        flusher = Thread.ofPlatform().name("ledger-write-behind").daemon().start(this::run);
+    }
+
+    /**
+     * Enqueues history entries of one operation, to be persisted in one transaction with their balance changes.
+     */
+    synchronized void enqueue(@NonNull HistoryEntity... history) {
+        checkRunning();
+        queue.add(List.of(history));
+        enqueued++;
+    }
+
+    /**
+     * Waits until all changes enqueued before the call are persisted, or fails if they can't be.
+     */
+    @SneakyThrows
+    synchronized void flush() {
+        var target = enqueued;
+        while (persisted < target) {
+            checkRunning();
+            wait();
+        }
+    }
+
+    @Override
+    @SneakyThrows
+    public void close() {
+        running = false;
+        flusher.join();
+    }
+
+    private void run() {
+        var batch = new ArrayList<List<HistoryEntity>>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                if (!persisted(batch)) {
+                    return;
+                }
+                persisted(batch.size());
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Persists the batch, retrying it until max attempts are made.
+     *
+     * @return 'false' if the batch could not be persisted, and the queue is stopped
+     */
+    private boolean persisted(List<List<HistoryEntity>> batch) throws InterruptedException {
+        var changes = new LinkedHashMap<String, Long>();
+        for (var operation : batch) {
+            operation.forEach(h -> changes.merge(h.getEmail(), h.balanceChange(), Money::add));
+        }
+
+        for (var attempt = 1; ; attempt++) {
+            var history = batch.stream().flatMap(List::stream).map(HistoryEntity::copied).toList();
+            try {
+                transactionTemplate.executeWithoutResult(s -> {
+                    changes.forEach((email, change) -> {
+                        if (change != 0) {
+                            accountRepository.changeBalance(email, change);
+                        }
+                    });
+                    historyRepository.saveAll(history);
+                });
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Failed to persist batch, write-behind is stopped: attempts={}, size={}, changes={}, "
+                                  + "history={}", attempt, batch.size(), changes, history, e);
+                    failed(e);
+                    return false;
+                }
+                log.warn("Failed to persist batch, retrying: attempt={}, size={}", attempt, batch.size(), e);
+                Thread.sleep(flushIntervalMs << (attempt - 1));
+            }
+        }
+    }
+
+    private synchronized void persisted(int count) {
+        persisted += count;
+        notifyAll();
+    }
+
+    private synchronized void failed(RuntimeException e) {
+        failure = e;
+        notifyAll();
+    }
+
+    private void checkRunning() {
+        if (failure != null) {
+            throw new IllegalStateException("Write-behind is stopped after a failed batch, ledger must be restarted",
+                                            failure);
+        }
+    }
+
+}
\ No newline at end of file
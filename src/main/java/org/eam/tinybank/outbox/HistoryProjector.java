@@ -0,0 +1,28 @@
+package org.eam.tinybank.outbox;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import org.eam.tinybank.api.HistoryEvent;
+import org.eam.tinybank.domain.HistoryEntity;
+import org.eam.tinybank.repository.HistoryRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the history read model from published events. It's called in the relay transaction, so every event is
+ * projected exactly once, together with its deletion from the outbox.
+ */
+@Component
+@ConditionalOnProperty(name = "history.outbox.enabled", havingValue = "true")
+@AllArgsConstructor
+class HistoryProjector implements OutboxSink {
+
+    private final HistoryRepository historyRepository;
+
+    @Override
+    public void publish(@NonNull List<HistoryEvent> events) {
+        historyRepository.saveAll(events.stream().map(HistoryEntity::from).toList());
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package org.eam.tinybank.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+import org.eam.tinybank.api.HistoryEvent;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Local event stream, which keeps published events in a bounded queue for in-process consumers, e.g. tests, so no
+ * external broker is needed. Events are added after the relay transaction is committed, so a rolled back batch is not
+ * seen twice. Register it as a bean to receive events.
+ * <p>
+ * NOTE that events are lost on restart, and the relay blocks when the queue is full.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<HistoryEvent> queue;
+
+    public InMemoryOutboxSink(int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void publish(@NonNull List<HistoryEvent> events) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    added(events);
+                }
+            });
+        } else {
+            added(events);
+        }
+    }
+
+    /**
+     * Waits for the next event up to the given timeout.
+     *
+     * @return the event, or null if none was published in time
+     */
+    public HistoryEvent poll(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    /**
+     * Removes and returns all events published so far.
+     */
+    public List<HistoryEvent> drain() {
+        var events = new ArrayList<HistoryEvent>();
+        queue.drainTo(events);
+        return events;
+    }
+
+    private void added(List<HistoryEvent> events) {
+        for (var event : events) {
+            try {
+                queue.put(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package org.eam.tinybank.outbox;
+
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.config.properties.HistoryProperties;
+import org.eam.tinybank.domain.OutboxEntity;
+import org.eam.tinybank.repository.OutboxRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Publishes outbox events to all sinks, in batches of the oldest events, and deletes them in the same transaction. A
+ * failed batch is rolled back and published again, so delivery is at least once for external sinks, and exactly once
+ * for sinks writing to the same database, like {@link HistoryProjector}. Batches are locked skipping locked events,
+ * so several instances may run relays.
+ */
+@Component
+@ConditionalOnProperty(name = "history.outbox.enabled", havingValue = "true")
+@Log4j2
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final HistoryProperties.Outbox properties;
+    private final Thread relay;
+    private volatile boolean running = true;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       List<OutboxSink> sinks,
+                       TransactionTemplate transactionTemplate,
+                       HistoryProperties properties) {
+        this.outboxRepository = outboxRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties.getOutbox();
+        this.relay = Thread.ofPlatform().name("history-outbox-relay").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    @SneakyThrows
+    void close() {
+        running = false;
+        relay.join();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (relayed() < properties.getBatchSize()) {
+                    Thread.sleep(properties.getPollIntervalMs());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Publishes and deletes one batch.
+     *
+     * @return number of published events, zero if the batch failed
+     */
+    private int relayed() {
+        try {
+            return transactionTemplate.execute(s -> published());
+        } catch (RuntimeException e) {
+            log.error("Failed to relay outbox batch", e);
+            return 0;
+        }
+    }
+
+    private int published() {
+        var batch = outboxRepository.findOldestLocked(Limit.of(properties.getBatchSize()));
+        if (!batch.isEmpty()) {
+            var events = batch.stream().map(OutboxEntity::event).toList();
+            sinks.forEach(sink -> sink.publish(events));
+            outboxRepository.deletePublished(batch.stream().map(OutboxEntity::getId).toList());
+        }
+        return batch.size();
+    }
+
+}
\ No newline at end of file
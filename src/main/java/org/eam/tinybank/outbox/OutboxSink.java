@@ -0,0 +1,16 @@
+package org.eam.tinybank.outbox;
+
+import java.util.List;
+import lombok.NonNull;
+import org.eam.tinybank.api.HistoryEvent;
+
+/**
+ * Destination of history events published by {@link OutboxRelay}, e.g. a message broker. Events are published in the
+ * relay transaction, and are deleted from the outbox only if all sinks succeed, otherwise the batch is published again,
+ * so a sink must tolerate redelivered events, identified by their ids.
+ */
+public interface OutboxSink {
+
+    void publish(@NonNull List<HistoryEvent> events);
+
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package org.eam.tinybank.reactive;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.CreateAccountRequest;
+import org.eam.tinybank.api.DepositRequest;
+import org.eam.tinybank.api.HistoryRequest;
+import org.eam.tinybank.api.TransferRequest;
+import org.eam.tinybank.api.WithdrawRequest;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code AccountController}, with the same endpoints and responses, except batch.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/account")
+@AllArgsConstructor
+class ReactiveAccountController {
+
+    private final ReactiveAccountService accountService;
+
+    @PostMapping(path = "create", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    Mono<ResponseEntity<ApiResponse>> create(@RequestBody CreateAccountRequest request) {
+        return accountService.create(request).map(ReactiveAccountController::responseFrom);
+    }
+
+    @PostMapping(path = "deposit", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    Mono<ResponseEntity<ApiResponse>> deposit(@RequestBody DepositRequest request) {
+        return accountService.deposit(request).map(ReactiveAccountController::responseFrom);
+    }
+
+    @PostMapping(path = "withdraw", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    Mono<ResponseEntity<ApiResponse>> withdraw(@RequestBody WithdrawRequest request) {
+        return accountService.withdraw(request).map(ReactiveAccountController::responseFrom);
+    }
+
+    @PostMapping(path = "transfer", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    Mono<ResponseEntity<ApiResponse>> transfer(@RequestBody TransferRequest request) {
+        return accountService.transfer(request).map(ReactiveAccountController::responseFrom);
+    }
+
+    @GetMapping(path = "balance", produces = APPLICATION_JSON_VALUE)
+    Mono<ResponseEntity<ApiResponse>> balance(@RequestParam String email) {
+        return accountService.balance(email).map(ReactiveAccountController::responseFrom);
+    }
+
+    @GetMapping(path = "history", produces = APPLICATION_JSON_VALUE)
+    Mono<ResponseEntity<ApiResponse>> history(@RequestParam String email,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) Long from,
+                                              @RequestParam(required = false) Long to) {
+        return accountService.history(new HistoryRequest(email, cursor, limit, from, to))
+            .map(ReactiveAccountController::responseFrom);
+    }
+
+    /**
+     * Streams the whole history, or its time range, as NDJSON, with backpressure: entries are read from the database
+     * only as fast as the client consumes them. Errors are returned as regular JSON responses.
+     */
+    @GetMapping(path = "history/stream", produces = {APPLICATION_NDJSON_VALUE, APPLICATION_JSON_VALUE})
+    Mono<ResponseEntity<?>> historyStream(@RequestParam String email,
+                                          @RequestParam(required = false) Long from,
+                                          @RequestParam(required = false) Long to) {
+        var request = new HistoryRequest(email, null, null, from, to);
+        return accountService.invalidHistory(email)
+            .<ResponseEntity<?>>map(r -> ResponseEntity.status(r.statusCode()).contentType(MediaType.APPLICATION_JSON)
+                .body(r))
+            .switchIfEmpty(Mono.fromSupplier(() -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(accountService.streamHistory(request))));
+    }
+
+    static ResponseEntity<ApiResponse> responseFrom(@NonNull ApiResponse response) {
+        return ResponseEntity.status(response.statusCode()).body(response);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package org.eam.tinybank.reactive;
+
+import java.util.Collection;
+import java.util.Map;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code AccountRepository}, working with the table mapped by {@code AccountEntity}. Locked
+ * reads use exclusive row locks, and must be called in the same transaction with update call. Balance reads are served
+ * by the replica, if it's configured.
+ */
+@Component
+@Profile("reactive")
+class ReactiveAccountRepository {
+
+    private final DatabaseClient client;
+    private final DatabaseClient readClient;
+
+    ReactiveAccountRepository(DatabaseClient client, @Qualifier("readDatabaseClient") DatabaseClient readClient) {
+        this.client = client;
+        this.readClient = readClient;
+    }
+
+    Mono<Boolean> exists(@NonNull String email) {
+        return client.sql("select count(*) from account_entity where email = :email")
+            .bind("email", email)
+            .map(row -> row.get(0, Long.class) > 0)
+            .one();
+    }
+
+    Mono<Long> create(@NonNull String email) {
+        return client.sql("insert into account_entity (email, balance, version) values (:email, 0, 0)")
+            .bind("email", email)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    Mono<Long> findBalance(@NonNull String email) {
+        return readClient.sql("select balance from account_entity where email = :email")
+            .bind("email", email)
+            .map(row -> row.get("balance", Long.class))
+            .one();
+    }
+
+    Mono<Long> findLocked(@NonNull String email) {
+        return client.sql("select balance from account_entity where email = :email for update")
+            .bind("email", email)
+            .map(row -> row.get("balance", Long.class))
+            .one();
+    }
+
+    /**
+     * Locks all given accounts in one query, in email order, the same way {@code JpaLedger} does for transfers.
+     */
+    Mono<Map<String, Long>> findAllLocked(@NonNull Collection<String> emails) {
+        return client.sql("select email, balance from account_entity where email in (:emails) order by email"
+                              + " for update")
+            .bind("emails", emails)
+            .map(row -> Map.entry(row.get("email", String.class), row.get("balance", Long.class)))
+            .all()
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    Mono<Long> updateBalance(@NonNull String email, long balance) {
+        return client.sql("update account_entity set balance = :balance, version = version + 1 where email = :email")
+            .bind("email", email)
+            .bind("balance", balance)
+            .fetch()
+            .rowsUpdated();
+    }
+
+}
\ No newline at end of file
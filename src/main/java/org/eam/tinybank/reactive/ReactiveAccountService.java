@@ -0,0 +1,198 @@
+package org.eam.tinybank.reactive;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.api.AmountValidateSupport;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.CreateAccountRequest;
+import org.eam.tinybank.api.DepositRequest;
+import org.eam.tinybank.api.HistoryEntry;
+import org.eam.tinybank.api.HistoryRequest;
+import org.eam.tinybank.api.TransferRequest;
+import org.eam.tinybank.api.UserValidateSupport;
+import org.eam.tinybank.api.WithdrawRequest;
+import org.eam.tinybank.config.properties.ReactiveProperties;
+import org.eam.tinybank.domain.HistoryEntity;
+import org.eam.tinybank.domain.Money;
+import org.eam.tinybank.domain.UserEntity;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code AccountService} and {@code JpaLedger}, with the same validation, responses and
+ * invariants. Every balance change is applied in one transaction, reading accounts with exclusive row locks, in email
+ * order for transfers, so there are no lost updates or deadlocks.
+ * <p>
+ * NOTE that user statuses are read from the database on every call, since the user status cache loads them blocking.
+ */
+@Component
+@Profile("reactive")
+@AllArgsConstructor
+@Log4j2
+class ReactiveAccountService {
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveAccountRepository accountRepository;
+    private final ReactiveHistoryRepository historyRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final ReactiveProperties properties;
+
+    Mono<ApiResponse> create(@NonNull CreateAccountRequest request) {
+        log.info("Creating account: email={}", request.email());
+
+        return invalidUser(request)
+            .switchIfEmpty(Mono.defer(() -> accountRepository.exists(request.email())
+                .flatMap(exists -> exists
+                    ? Mono.just(ApiResponse.accountExists())
+                    : accountRepository.create(request.email()).thenReturn(ApiResponse.accountCreated()))));
+    }
+
+    Mono<ApiResponse> deposit(@NonNull DepositRequest request) {
+        return validated(request, () -> accountRepository.findLocked(request.email())
+            .flatMap(balance -> {
+                var updated = Money.add(balance, request.minorAmount());
+                return accountRepository.updateBalance(request.email(), updated)
+                    .then(historyRepository.save(HistoryEntity.deposit(request.email(), request.minorAmount())))
+                    .thenReturn(ApiResponse.deposited(updated));
+            })
+            .defaultIfEmpty(ApiResponse.accountNotFound(request.email())));
+    }
+
+    Mono<ApiResponse> withdraw(@NonNull WithdrawRequest request) {
+        return validated(request, () -> accountRepository.findLocked(request.email())
+            .flatMap(balance -> {
+                if (balance <= request.minorAmount()) {
+                    return Mono.just(ApiResponse.insufficientFunds(request.email()));
+                }
+                var updated = Money.subtract(balance, request.minorAmount());
+                return accountRepository.updateBalance(request.email(), updated)
+                    .then(historyRepository.save(HistoryEntity.withdraw(request.email(), request.minorAmount())))
+                    .thenReturn(ApiResponse.withdrawed(updated));
+            })
+            .defaultIfEmpty(ApiResponse.accountNotFound(request.email())));
+    }
+
+    /**
+     * Locks both accounts with one query, and checks invariants in the same order as {@code JpaLedger} does.
+     */
+    Mono<ApiResponse> transfer(@NonNull TransferRequest request) {
+        var emails = new TreeSet<>(List.of(request.emailFrom(), request.emailTo()));
+        return validated(request, () -> accountRepository.findAllLocked(emails)
+            .flatMap(balances -> transfer(request, balances)));
+    }
+
+    Mono<ApiResponse> balance(@NonNull String email) {
+        return invalidUser(email)
+            .switchIfEmpty(Mono.defer(() -> accountRepository.findBalance(email)
+                .map(ApiResponse::balance)
+                .defaultIfEmpty(ApiResponse.accountNotFound(email))));
+    }
+
+    /**
+     * Returns the whole history, or a page of it, if any of paging parameters is given.
+     */
+    Mono<ApiResponse> history(@NonNull HistoryRequest request) {
+        return invalidHistory(request.email())
+            .switchIfEmpty(Mono.defer(() -> {
+                if (!request.paged()) {
+                    return historyRepository.findAll(request.email(), request.fromOrMin(), request.toOrMax())
+                        .collectList()
+                        .map(entries -> ApiResponse.historyEntries(entries, null));
+                }
+                return request.after()
+                    .map(after -> historyPage(request, after))
+                    .orElseGet(() -> Mono.just(ApiResponse.invalidCursor(request.cursor())));
+            }));
+    }
+
+    /**
+     * Checks user profile and account before history is read, and returns a corresponding response if any is invalid.
+     */
+    Mono<ApiResponse> invalidHistory(@NonNull String email) {
+        return invalidUser(email)
+            .switchIfEmpty(Mono.defer(() -> accountRepository.exists(email)
+                .flatMap(exists -> exists ? Mono.empty() : Mono.just(ApiResponse.accountNotFound(email)))));
+    }
+
+    /**
+     * Streams history entries, requesting them from the database in chunks of configured size, only as fast as the
+     * client reads them. NOTE that user and account must be checked beforehand with {@link #invalidHistory(String)}.
+     */
+    Flux<HistoryEntry> streamHistory(@NonNull HistoryRequest request) {
+        return historyRepository.findAll(request.email(), request.fromOrMin(), request.toOrMax())
+            .limitRate(properties.getPrefetch());
+    }
+
+    private Mono<ApiResponse> transfer(TransferRequest request, Map<String, Long> balances) {
+        var emailFrom = request.emailFrom();
+        var emailTo = request.emailTo();
+        var amount = request.minorAmount();
+        if (!balances.containsKey(emailTo)) {
+            return Mono.just(ApiResponse.accountNotFound(emailTo));
+        }
+        if (!balances.containsKey(emailFrom)) {
+            return Mono.just(ApiResponse.accountNotFound(emailFrom));
+        }
+        if (balances.get(emailFrom) <= amount) {
+            return Mono.just(ApiResponse.insufficientFunds(emailFrom));
+        }
+
+        return accountRepository.updateBalance(emailFrom, Money.subtract(balances.get(emailFrom), amount))
+            .then(accountRepository.updateBalance(emailTo, Money.add(balances.get(emailTo), amount)))
+            .then(historyRepository.save(HistoryEntity.transferTo(emailFrom, emailTo, amount)))
+            .then(historyRepository.save(HistoryEntity.receiveFrom(emailTo, emailFrom, amount)))
+            .thenReturn(ApiResponse.transferred(emailFrom, emailTo));
+    }
+
+    private Mono<ApiResponse> historyPage(HistoryRequest request, HistoryRequest.Position after) {
+        return historyRepository.findPage(request.email(), after, request.fromOrMin(), request.toOrMax(),
+                                          request.pageSize())
+            .collectList()
+            .map(page -> ApiResponse.historyEntries(page, page.size() < request.pageSize()
+                ? null
+                : HistoryRequest.cursor(page.getLast().timestamp(), page.getLast().id())));
+    }
+
+    /**
+     * Checks amount and users, and applies the operation in a transaction, if the request is valid.
+     */
+    private <T extends UserValidateSupport & AmountValidateSupport> Mono<ApiResponse> validated(
+        T request, Supplier<Mono<ApiResponse>> operation) {
+        return invalidAmount(request)
+            .map(Mono::just)
+            .orElseGet(() -> invalidUser(request))
+            .switchIfEmpty(Mono.defer(() -> operation.get().as(transactionalOperator::transactional)));
+    }
+
+    private static Optional<ApiResponse> invalidAmount(AmountValidateSupport request) {
+        return request.validAmount() ? Optional.empty() : Optional.of(ApiResponse.invalidAmount(request.amount()));
+    }
+
+    /**
+     * Checks all given emails and returns first error found.
+     */
+    private Mono<ApiResponse> invalidUser(UserValidateSupport request) {
+        return Flux.fromIterable(request.emailsToCheck())
+            .concatMap(this::invalidUser)
+            .next();
+    }
+
+    private Mono<ApiResponse> invalidUser(String email) {
+        return userRepository.findStatus(email)
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(status -> Mono.justOrEmpty(status.isEmpty()
+                ? Optional.of(ApiResponse.userNotFound(email))
+                : status.filter(s -> s == UserEntity.Status.DEACTIVATED).map(s -> ApiResponse.inactive())));
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package org.eam.tinybank.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import org.eam.tinybank.config.properties.ReactiveProperties;
+import org.eam.tinybank.config.properties.ReplicaProperties;
+import org.eam.tinybank.replica.ReactiveReplicaRouting;
+import org.eam.tinybank.replica.ReplicaMonitor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Creates R2DBC access to the database. Connection factory and transaction manager are intentionally not beans: a
+ * connection factory bean disables JDBC data source auto-configuration, and a second transaction manager makes
+ * {@code @Transactional} of JPA services ambiguous, so reactive code uses {@link TransactionalOperator} explicitly.
+ * <p>
+ * When the replica is enabled and has an R2DBC url, reads which may lag behind use a separate client, routed with
+ * {@link ReactiveReplicaRouting}, the same way read-only transactions of JPA are.
+ */
+@Configuration
+@Profile("reactive")
+class ReactiveConfiguration {
+
+    private final ConnectionPool pool;
+    private final ConnectionPool replicaPool;
+
+    ReactiveConfiguration(ReactiveProperties properties, ReplicaProperties replica) {
+        this.pool = pool(properties.getUrl(), properties.getUsername(), properties.getPassword(),
+                         ConnectionPoolConfiguration.builder().maxSize(properties.getPoolSize()));
+        this.replicaPool = replica.isEnabled() && replica.getR2dbcUrl() != null
+            ? pool(replica.getR2dbcUrl(), replica.getUsername(), replica.getPassword(),
+                   ConnectionPoolConfiguration.builder()
+                       .maxSize(replica.getPoolSize())
+                       .maxAcquireTime(Duration.ofMillis(replica.getConnectionTimeoutMs())))
+            : null;
+    }
+
+    @Bean
+    @Primary
+    DatabaseClient databaseClient() {
+        return DatabaseClient.create(pool);
+    }
+
+    /**
+     * Client of reads which may lag behind, i.e. balance and history, served by the replica, if it's configured.
+     */
+    @Bean
+    DatabaseClient readDatabaseClient(ObjectProvider<ReplicaMonitor> monitor) {
+        return DatabaseClient.create(replicaPool == null
+                                         ? pool
+                                         : new ReactiveReplicaRouting(pool, replicaPool, monitor.getObject()));
+    }
+
+    @Bean
+    TransactionalOperator transactionalOperator() {
+        return TransactionalOperator.create(new R2dbcTransactionManager(pool));
+    }
+
+    @PreDestroy
+    void close() {
+        pool.dispose();
+        if (replicaPool != null) {
+            replicaPool.dispose();
+        }
+    }
+
+    private static ConnectionPool pool(String url, String username, String password,
+                                       ConnectionPoolConfiguration.Builder configuration) {
+        var options = ConnectionFactoryOptions.parse(url)
+            .mutate()
+            .option(ConnectionFactoryOptions.USER, username)
+            .option(ConnectionFactoryOptions.PASSWORD, password)
+            .build();
+        return new ConnectionPool(configuration.connectionFactory(ConnectionFactories.get(options)).build());
+    }
+
+}
\ No newline at end of file
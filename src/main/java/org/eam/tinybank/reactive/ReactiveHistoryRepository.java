@@ -0,0 +1,105 @@
+package org.eam.tinybank.reactive;
+
+import io.r2dbc.spi.Readable;
+import lombok.NonNull;
+import org.eam.tinybank.api.HistoryEntry;
+import org.eam.tinybank.api.HistoryRequest;
+import org.eam.tinybank.domain.HistoryEntity;
+import org.eam.tinybank.domain.OperationType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code HistoryRepository}, working with the table mapped by {@link HistoryEntity}. Entries
+ * are read as detached {@link HistoryEntry} records, in order of operations, from the replica, if it's configured.
+ * <p>
+ * NOTE that ids are taken from the history sequence one by one, with the syntax of the database dialect, while JPA
+ * reserves them in blocks, so both stacks must not write history to the same database at once.
+ */
+@Component
+@Profile("reactive")
+class ReactiveHistoryRepository {
+
+    private static final String SELECT = "select id, timestamp, type, description, amount from history_entity";
+
+    private final DatabaseClient client;
+    private final DatabaseClient readClient;
+    private final String insert;
+
+    ReactiveHistoryRepository(DatabaseClient client, @Qualifier("readDatabaseClient") DatabaseClient readClient) {
+        this.client = client;
+        this.readClient = readClient;
+        this.insert = "insert into history_entity (id, email, timestamp, description, type, amount) values ("
+            + nextId(DialectResolver.getDialect(client.getConnectionFactory()))
+            + ", :email, :timestamp, :description, :type, :amount)";
+    }
+
+    Mono<Long> save(@NonNull HistoryEntity entry) {
+        return client.sql(insert)
+            .bind("email", entry.getEmail())
+            .bind("timestamp", entry.getTimestamp())
+            .bind("description", entry.getDescription())
+            .bind("type", entry.getType().ordinal())
+            .bind("amount", entry.getAmount())
+            .fetch()
+            .rowsUpdated();
+    }
+
+    Flux<HistoryEntry> findAll(@NonNull String email, long from, long to) {
+        return readClient.sql(SELECT + " where email = :email and timestamp >= :from and timestamp < :to"
+                              + " order by timestamp, id")
+            .bind("email", email)
+            .bind("from", from)
+            .bind("to", to)
+            .map(ReactiveHistoryRepository::entry)
+            .all();
+    }
+
+    /**
+     * Reads entries after given position, the same way as {@code HistoryRepository#findPage} does.
+     */
+    Flux<HistoryEntry> findPage(@NonNull String email, @NonNull HistoryRequest.Position after, long from, long to,
+                                int limit) {
+        return readClient.sql(SELECT + " where email = :email and timestamp >= :from and timestamp < :to"
+                              + " and (timestamp > :afterTimestamp or timestamp = :afterTimestamp and id > :afterId)"
+                              + " order by timestamp, id limit :limit")
+            .bind("email", email)
+            .bind("afterTimestamp", after.timestamp())
+            .bind("afterId", after.id())
+            .bind("from", from)
+            .bind("to", to)
+            .bind("limit", limit)
+            .map(ReactiveHistoryRepository::entry)
+            .all();
+    }
+
+    /**
+     * Expression of the next history id. H2 dialect is checked first, since it extends the Postgres one.
+     */
+    private static String nextId(R2dbcDialect dialect) {
+        if (dialect instanceof H2Dialect) {
+            return "next value for history_seq";
+        }
+        if (dialect instanceof PostgresDialect) {
+            return "nextval('history_seq')";
+        }
+        throw new IllegalStateException("Unsupported dialect of reactive history: " + dialect.getClass().getName());
+    }
+
+    private static HistoryEntry entry(Readable row) {
+        return new HistoryEntry(row.get("id", Long.class),
+                                row.get("timestamp", Long.class),
+                                OperationType.values()[((Number) row.get("type")).intValue()],
+                                row.get("description", String.class),
+                                row.get("amount", Long.class));
+    }
+
+}
\ No newline at end of file
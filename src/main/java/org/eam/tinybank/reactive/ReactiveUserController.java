@@ -0,0 +1,39 @@
+package org.eam.tinybank.reactive;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+import lombok.AllArgsConstructor;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.CreateUserRequest;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code UserController}, with the same endpoints and responses.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/user")
+@AllArgsConstructor
+class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    @PostMapping(path = "create", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    Mono<ResponseEntity<ApiResponse>> create(@RequestBody CreateUserRequest request) {
+        return userService.create(request).map(ReactiveAccountController::responseFrom);
+    }
+
+    @PatchMapping(path = "deactivate", produces = APPLICATION_JSON_VALUE)
+    Mono<ResponseEntity<ApiResponse>> deactivate(@RequestParam String email) {
+        return userService.deactivate(email).map(ReactiveAccountController::responseFrom);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package org.eam.tinybank.reactive;
+
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import org.eam.tinybank.domain.UserEntity;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code UserRepository}, working with the table mapped by {@link UserEntity}.
+ * <p>
+ * NOTE that status is inlined as a literal of the enum constant, since r2dbc-h2 fails to convert a bound string to
+ * H2 enum column type.
+ */
+@Component
+@Profile("reactive")
+@AllArgsConstructor
+class ReactiveUserRepository {
+
+    private final DatabaseClient client;
+
+    Mono<UserEntity.Status> findStatus(@NonNull String email) {
+        return client.sql("select status from user_entity where email = :email")
+            .bind("email", email)
+            .map(row -> UserEntity.Status.valueOf(row.get("status", String.class)))
+            .one();
+    }
+
+    Mono<Long> save(@NonNull UserEntity user) {
+        return client.sql("insert into user_entity (email, firstname, lastname, status)"
+                              + " values (:email, :firstname, :lastname, '%s')".formatted(user.getStatus().name()))
+            .bind("email", user.getEmail())
+            .bind("firstname", user.getFirstname())
+            .bind("lastname", user.getLastname())
+            .fetch()
+            .rowsUpdated();
+    }
+
+    Mono<Long> updateStatus(@NonNull String email, @NonNull UserEntity.Status status) {
+        return client.sql("update user_entity set status = '%s' where email = :email".formatted(status.name()))
+            .bind("email", email)
+            .fetch()
+            .rowsUpdated();
+    }
+
+}
\ No newline at end of file
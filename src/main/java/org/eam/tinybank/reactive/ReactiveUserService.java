@@ -0,0 +1,41 @@
+package org.eam.tinybank.reactive;
+
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.CreateUserRequest;
+import org.eam.tinybank.domain.UserEntity;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code UserService}, with the same validation and responses.
+ */
+@Component
+@Profile("reactive")
+@AllArgsConstructor
+@Log4j2
+class ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+
+    Mono<ApiResponse> create(@NonNull CreateUserRequest request) {
+        log.info("Creating new user: email={}", request.email());
+
+        if (!request.validEmail()) {
+            return Mono.just(ApiResponse.invalidEmail(request.email()));
+        }
+        return userRepository.findStatus(request.email())
+            .map(s -> ApiResponse.userExists())
+            .switchIfEmpty(Mono.defer(() -> userRepository.save(UserEntity.from(request))
+                .thenReturn(ApiResponse.userCreated())));
+    }
+
+    Mono<ApiResponse> deactivate(@NonNull String email) {
+        return userRepository.updateStatus(email, UserEntity.Status.DEACTIVATED)
+            .map(updated -> updated > 0 ? ApiResponse.deactivated() : ApiResponse.userNotFound(email));
+    }
+
+}
\ No newline at end of file
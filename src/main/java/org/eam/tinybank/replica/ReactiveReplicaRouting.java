@@ -0,0 +1,39 @@
+package org.eam.tinybank.replica;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import lombok.AllArgsConstructor;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link ReplicaRouting}, used by the reactive stack for reads which may lag behind, i.e.
+ * balance and history: connections are created by the replica while it's usable, otherwise, or if it fails to provide
+ * one, by the primary.
+ */
+@AllArgsConstructor
+public class ReactiveReplicaRouting implements ConnectionFactory {
+
+    private final ConnectionFactory primary;
+    private final ConnectionFactory replica;
+    private final ReplicaMonitor monitor;
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        if (!monitor.usable()) {
+            return primary.create();
+        }
+        return Mono.<Connection>from(replica.create())
+            .onErrorResume(e -> {
+                monitor.failed(e);
+                return Mono.from(primary.create());
+            });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+}
\ No newline at end of file
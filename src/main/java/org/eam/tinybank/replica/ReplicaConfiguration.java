@@ -0,0 +1,57 @@
+package org.eam.tinybank.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.eam.tinybank.config.properties.ReplicaProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the auto-configured data source with one routing read-only transactions to the replica, see
+ * {@link ReplicaRouting}. Connections are obtained lazily, on the first statement, when the transaction is already
+ * marked as read-only. The primary pool is configured with 'spring.datasource' properties as usual.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "replica", name = "enabled", havingValue = "true")
+class ReplicaConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Starts even if the replica is down, which is then detected by {@link ReplicaMonitor}.
+     */
+    @Bean
+    HikariDataSource replicaDataSource(ReplicaProperties properties) {
+        var dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(properties.getUrl());
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        dataSource.setMaximumPoolSize(properties.getPoolSize());
+        dataSource.setConnectionTimeout(properties.getConnectionTimeoutMs());
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                          @Qualifier("replicaDataSource") HikariDataSource replica,
+                          ReplicaMonitor monitor) {
+        var dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRouting(primary, replica, monitor));
+        return dataSource;
+    }
+
+}
@@ -0,0 +1,79 @@
+package org.eam.tinybank.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.config.properties.ReplicaProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Measures replication lag with a heartbeat: once per check interval, reads the heartbeat timestamp from the replica,
+ * then writes the current time to the primary. Replica is usable while the last replicated heartbeat is not older than
+ * max lag, so it becomes unusable on its own, if checks stop succeeding. A failed replica read makes it unusable at
+ * once. The lag is exposed as a gauge, NaN while the replica is unusable.
+ */
+@Component
+@ConditionalOnProperty(prefix = "replica", name = "enabled", havingValue = "true")
+@Log4j2
+public class ReplicaMonitor {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+    private volatile long replicatedAt;
+
+    ReplicaMonitor(@Qualifier("primaryDataSource") HikariDataSource primary,
+                   @Qualifier("replicaDataSource") HikariDataSource replica,
+                   ReplicaProperties properties,
+                   MeterRegistry registry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMs = properties.getMaxLagMs();
+        Gauge.builder("bank.replica.lag", () -> usable() ? lagMs() : Double.NaN)
+            .description("Time since the last heartbeat seen on the replica, in milliseconds")
+            .register(registry);
+    }
+
+    public boolean usable() {
+        return lagMs() <= maxLagMs;
+    }
+
+    public long lagMs() {
+        return System.currentTimeMillis() - replicatedAt;
+    }
+
+    @Scheduled(fixedDelayString = "${replica.check-interval-ms:1000}")
+    void check() {
+        try {
+            var heartbeat = replica.queryForObject("select timestamp from replica_heartbeat where id = 1", Long.class);
+            if (!usable() && heartbeat != null && System.currentTimeMillis() - heartbeat <= maxLagMs) {
+                log.info("Replica is usable: lagMs={}", System.currentTimeMillis() - heartbeat);
+            }
+            replicatedAt = heartbeat == null ? 0 : heartbeat;
+        } catch (DataAccessException e) {
+            failed(e);
+        }
+        try {
+            primary.update("update replica_heartbeat set timestamp = ? where id = 1", System.currentTimeMillis());
+        } catch (DataAccessException e) {
+            log.warn("Failed to write heartbeat to primary", e);
+        }
+    }
+
+    /**
+     * Makes the replica unusable until the next successful check.
+     */
+    void failed(Throwable e) {
+        if (replicatedAt != 0) {
+            log.warn("Replica is unusable: {}", e.getMessage());
+        }
+        replicatedAt = 0;
+    }
+
+}
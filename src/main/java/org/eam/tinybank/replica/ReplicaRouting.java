@@ -0,0 +1,59 @@
+package org.eam.tinybank.replica;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Provides connections of read-only transactions: from the replica while it's usable, otherwise, or if it fails to
+ * provide a connection, from the primary. Repositories start their own read-only transactions for reads outside a
+ * transaction, e.g. existence checks before create, which must see the latest writes, so such transactions always read
+ * from the primary, and only read-only transactions declared by the application are served by the replica.
+ */
+class ReplicaRouting extends AbstractDataSource {
+
+    private static final String REPOSITORY = SimpleJpaRepository.class.getName();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaMonitor monitor;
+
+    ReplicaRouting(DataSource primary, DataSource replica, ReplicaMonitor monitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicated()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                monitor.failed(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (replicated()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                monitor.failed(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    private boolean replicated() {
+        var name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return monitor.usable() && (name == null || !name.startsWith(REPOSITORY));
+    }
+
+}
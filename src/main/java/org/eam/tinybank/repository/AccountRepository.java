@@ -5,11 +5,13 @@ import java.util.Optional;
 import lombok.NonNull;
 import org.eam.tinybank.domain.AccountEntity;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface AccountRepository extends CrudRepository<AccountEntity, String> {
+public interface AccountRepository extends CrudRepository<AccountEntity, String>, LockingAccountRepository {
 
     /**
      * Enables pessimistic locking on the row being updated to exclude lost updates, though allows simultaneous reads.
@@ -17,8 +19,67 @@ public interface AccountRepository extends CrudRepository<AccountEntity, String>
      * NOTE that this method must be called in the same transaction with update call.
      */
     @Override
-    @Lock(LockModeType.PESSIMISTIC_READ) // TODO test with two instances in Docker, compare performance to optimistic
+    @Lock(LockModeType.PESSIMISTIC_READ) // TODO test with two instances in Docker
     @NonNull
     Optional<AccountEntity> findById(@NonNull String email);
 
+    /**
+     * Overwrites stored balance without reading the row first. Used when balances are owned by an in-memory ledger, so
+     * the stored value is only a persisted copy.
+     */
+    @Modifying
+    @Query("update AccountEntity a set a.balance = :balance, a.version = a.version + 1 where a.email = :email")
+    int updateBalance(@NonNull String email, long balance);
+
+    /**
+     * Adds a signed change to the stored balance without reading the row first. Used when balances are owned by an
+     * in-memory ledger, so changes persisted in any order add up to the balance in memory.
+     */
+    @Modifying
+    @Query("update AccountEntity a set a.balance = a.balance + :change, a.version = a.version + 1"
+        + " where a.email = :email")
+    int changeBalance(@NonNull String email, long change);
+
+    /**
+     * Adds amount to the stored balance with a single statement, without reading the row first.
+     *
+     * @return number of updated rows, zero if account does not exist
+     */
+    @Modifying
+    @Query("update AccountEntity a set a.balance = a.balance + :amount, a.version = a.version + 1"
+        + " where a.email = :email")
+    int deposit(@NonNull String email, long amount);
+
+    /**
+     * Subtracts amount from the stored balance with a single statement, if the balance stays positive, without reading
+     * the row first.
+     *
+     * @return number of updated rows, zero if account does not exist or has insufficient funds
+     */
+    @Modifying
+    @Query("update AccountEntity a set a.balance = a.balance - :amount, a.version = a.version + 1"
+        + " where a.email = :email and a.balance - :amount > 0")
+    int withdraw(@NonNull String email, long amount);
+
+    /**
+     * Reads the account without locking, unlike {@link #findById(String)}, e.g. to serve balance reads.
+     */
+    @Query("select a from AccountEntity a where a.email = :email")
+    Optional<AccountEntity> findUnlocked(@NonNull String email);
+
+    /**
+     * Reads the stored balance and version without locking, e.g. to return it after a conditional update in the same
+     * transaction.
+     */
+    @Query("select a.balance as balance, a.version as version from AccountEntity a where a.email = :email")
+    Optional<StoredBalance> findStoredBalance(@NonNull String email);
+
+    interface StoredBalance {
+
+        long getBalance();
+
+        long getVersion();
+
+    }
+
 }
\ No newline at end of file
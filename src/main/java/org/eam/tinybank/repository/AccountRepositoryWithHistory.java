@@ -1,6 +1,5 @@
 package org.eam.tinybank.repository;
 
-import java.math.BigDecimal;
 import java.util.Optional;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
@@ -20,7 +19,7 @@ public class AccountRepositoryWithHistory {
         return repository.findById(email);
     }
 
-    public void deposit(@NonNull AccountEntity entity, @NonNull BigDecimal amount) {
+    public void deposit(@NonNull AccountEntity entity, long amount) {
         repository.save(entity);
         historyRepository.save(HistoryEntity.deposit(entity.getEmail(), amount));
     }
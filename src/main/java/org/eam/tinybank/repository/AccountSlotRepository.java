@@ -0,0 +1,44 @@
+package org.eam.tinybank.repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import lombok.NonNull;
+import org.eam.tinybank.domain.AccountSlotEntity;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountSlotRepository extends CrudRepository<AccountSlotEntity, AccountSlotEntity.Key> {
+
+    /**
+     * Adds amount to the slot balance with a single statement, so only the slot row is locked.
+     *
+     * @return number of updated rows, zero if the slot does not exist
+     */
+    @Modifying
+    @Query("update AccountSlotEntity s set s.balance = s.balance + :amount where s.email = :email and s.slot = :slot")
+    int deposit(@NonNull String email, int slot, long amount);
+
+    /**
+     * Locks all slots of the account in slot order, so concurrent consolidations don't deadlock.
+     * <p>
+     * NOTE that this method must be called in the same transaction with {@link #empty(String)} call.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from AccountSlotEntity s where s.email = :email order by s.slot")
+    List<AccountSlotEntity> findAllLocked(@NonNull String email);
+
+    @Modifying
+    @Query("update AccountSlotEntity s set s.balance = 0 where s.email = :email")
+    int empty(@NonNull String email);
+
+    /**
+     * Sums slot balances without locking, zero if the account has no slots.
+     */
+    @Query("select coalesce(sum(s.balance), 0) from AccountSlotEntity s where s.email = :email")
+    long sumBalance(@NonNull String email);
+
+}
\ No newline at end of file
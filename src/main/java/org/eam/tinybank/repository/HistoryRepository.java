@@ -1,12 +1,61 @@
 package org.eam.tinybank.repository;
 
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 import lombok.NonNull;
+import org.eam.tinybank.api.HistoryEntry;
 import org.eam.tinybank.domain.HistoryEntity;
+import org.eam.tinybank.domain.OperationType;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 public interface HistoryRepository extends CrudRepository<HistoryEntity, Long> {
 
+    @Query("select h from HistoryEntity h where h.email = :email order by h.timestamp, h.id")
     List<HistoryEntity> findAllByEmail(@NonNull String email);
 
+    /**
+     * Reads a page of account history using keyset pagination on timestamp and id, which is a range scan of the
+     * history index, so every page costs the same, regardless of its position.
+     */
+    @Query("select h from HistoryEntity h where h.email = :email and h.timestamp >= :from and h.timestamp < :to "
+        + "and (h.timestamp > :afterTimestamp or h.timestamp = :afterTimestamp and h.id > :afterId) "
+        + "order by h.timestamp, h.id")
+    List<HistoryEntity> findPage(@NonNull String email, long afterTimestamp, long afterId, long from, long to,
+                                 @NonNull Limit limit);
+
+    /**
+     * Reads account history with a forward-only cursor, mapping rows to detached entries. NOTE that the stream must be
+     * consumed and closed within a transaction.
+     */
+    @Query("select new org.eam.tinybank.api.HistoryEntry(h.id, h.timestamp, h.type, h.description, h.amount) "
+        + "from HistoryEntity h where h.email = :email and h.timestamp >= :from and h.timestamp < :to "
+        + "order by h.timestamp, h.id")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<HistoryEntry> streamAll(@NonNull String email, long from, long to);
+
+    /**
+     * Sums amounts of all operations per account and operation type, which is enough to rebuild balances.
+     */
+    @Query("select h.email as email, h.type as type, sum(h.amount) as amount from HistoryEntity h "
+        + "group by h.email, h.type")
+    List<HistoryTotal> totals();
+
+    interface HistoryTotal {
+
+        String getEmail();
+
+        OperationType getType();
+
+        long getAmount();
+
+    }
+
 }
\ No newline at end of file
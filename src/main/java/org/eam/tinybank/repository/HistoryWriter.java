@@ -0,0 +1,89 @@
+package org.eam.tinybank.repository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.NonNull;
+import org.eam.tinybank.config.properties.HistoryProperties;
+import org.eam.tinybank.domain.HistoryEntity;
+import org.eam.tinybank.domain.OutboxEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Stores history entries of account operations. By default, entries are saved as they are written. When group commit
+ * is enabled, entries written in a transaction are gathered and inserted together right before it's committed, as a
+ * single JDBC batch, since history ids come from a pooled sequence. The ledger applies operations of concurrent
+ * requests in one transaction then, see GroupCommit, so their entries are inserted
+ * together, atomically with balance changes. Sizes of inserted batches are recorded as a distribution summary.
+ * <p>
+ * When the outbox is enabled, it takes precedence: entries are stored as outbox events in the caller transaction, and
+ * history is built from published events, so it's eventually consistent with balances.
+ */
+@Component
+public class HistoryWriter {
+
+    private final HistoryRepository historyRepository;
+    private final OutboxRepository outboxRepository;
+    private final boolean batch;
+    private final boolean outbox;
+    private final DistributionSummary inserted;
+
+    public HistoryWriter(HistoryRepository historyRepository,
+                         OutboxRepository outboxRepository,
+                         HistoryProperties properties,
+                         MeterRegistry registry) {
+        this.historyRepository = historyRepository;
+        this.outboxRepository = outboxRepository;
+        this.batch = properties.getBatch().isEnabled();
+        this.outbox = properties.getOutbox().isEnabled();
+        this.inserted = DistributionSummary.builder("bank.history.batch")
+            .description("History entries inserted together before a commit")
+            .register(registry);
+    }
+
+    /**
+     * Stores given entries, or adds them to entries inserted before the current transaction is committed, if group
+     * commit is enabled, or stores them as outbox events, if the outbox is enabled.
+     */
+    public void write(@NonNull HistoryEntity... entries) {
+        if (outbox) {
+            outboxRepository.saveAll(Stream.of(entries).map(OutboxEntity::from).toList());
+        } else if (batch && TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending().addAll(List.of(entries));
+        } else {
+            historyRepository.saveAll(List.of(entries));
+        }
+    }
+
+    /**
+     * Returns entries of the current transaction, registering their insert before commit on the first call.
+     */
+    @SuppressWarnings("unchecked")
+    private List<HistoryEntity> pending() {
+        var pending = (List<HistoryEntity>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+
+        var created = new ArrayList<HistoryEntity>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                historyRepository.saveAll(created);
+                inserted.record(created.size());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(HistoryWriter.this);
+            }
+        });
+        return created;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package org.eam.tinybank.repository;
+
+import org.eam.tinybank.domain.IdempotencyEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface IdempotencyRepository extends CrudRepository<IdempotencyEntity, String>,
+    InsertingIdempotencyRepository {
+
+    /**
+     * Deletes responses stored before the given time, with a single statement.
+     *
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyEntity i where i.createdAt < :before")
+    int deleteCreatedBefore(long before);
+
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package org.eam.tinybank.repository;
+
+import lombok.NonNull;
+import org.eam.tinybank.domain.IdempotencyEntity;
+
+/**
+ * Claims idempotency keys with a plain insert. Saving an entity with assigned id merges it, so a concurrently stored
+ * response would be overwritten instead.
+ * <p>
+ * NOTE that this method must be called in the same transaction with the operation, so the key is claimed only if the
+ * operation is committed.
+ */
+public interface InsertingIdempotencyRepository {
+
+    /**
+     * Inserts the response at once, so a key already stored fails with
+     * {@link org.springframework.dao.DataIntegrityViolationException}, after a concurrent transaction which inserted it
+     * completes.
+     */
+    IdempotencyEntity inserted(@NonNull IdempotencyEntity entity);
+
+}
\ No newline at end of file
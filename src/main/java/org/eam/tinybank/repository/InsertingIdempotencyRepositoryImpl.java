@@ -0,0 +1,20 @@
+package org.eam.tinybank.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.NonNull;
+import org.eam.tinybank.domain.IdempotencyEntity;
+
+class InsertingIdempotencyRepositoryImpl implements InsertingIdempotencyRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public IdempotencyEntity inserted(@NonNull IdempotencyEntity entity) {
+        entityManager.persist(entity);
+        entityManager.flush();
+        return entity;
+    }
+
+}
\ No newline at end of file
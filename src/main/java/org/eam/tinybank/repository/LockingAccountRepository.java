@@ -0,0 +1,25 @@
+package org.eam.tinybank.repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import lombok.NonNull;
+import org.eam.tinybank.domain.AccountEntity;
+
+/**
+ * Reads accounts with lock mode given at runtime, so locking strategy can be chosen per deployment.
+ * <p>
+ * NOTE that these methods must be called in the same transaction with update call.
+ */
+public interface LockingAccountRepository {
+
+    Optional<AccountEntity> findLocked(@NonNull String email, @NonNull LockModeType lockMode);
+
+    /**
+     * Locks all given accounts in one query, in email order, which is the same order single transfers use, so there is
+     * no deadlock between them.
+     */
+    List<AccountEntity> findAllLocked(@NonNull Collection<String> emails, @NonNull LockModeType lockMode);
+
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package org.eam.tinybank.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import lombok.NonNull;
+import org.eam.tinybank.domain.AccountEntity;
+
+/**
+ * Measures locked reads, which is mostly the time spent waiting for row locks under contention.
+ */
+class LockingAccountRepositoryImpl implements LockingAccountRepository {
+
+    private static final String LOCK_WAIT = "bank.account.lock";
+
+    private final MeterRegistry registry;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    LockingAccountRepositoryImpl(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Optional<AccountEntity> findLocked(@NonNull String email, @NonNull LockModeType lockMode) {
+        return timer("single", lockMode)
+            .record(() -> Optional.ofNullable(entityManager.find(AccountEntity.class, email, lockMode)));
+    }
+
+    @Override
+    public List<AccountEntity> findAllLocked(@NonNull Collection<String> emails, @NonNull LockModeType lockMode) {
+        return timer("all", lockMode)
+            .record(() -> entityManager.createQuery(
+                    "select a from AccountEntity a where a.email in :emails order by a.email", AccountEntity.class)
+                .setParameter("emails", emails)
+                .setLockMode(lockMode)
+                .getResultList());
+    }
+
+    private Timer timer(String lookup, LockModeType lockMode) {
+        return Timer.builder(LOCK_WAIT)
+            .description("Locked account reads, including lock wait time")
+            .tag("lookup", lookup)
+            .tag("mode", lockMode.name())
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(registry);
+    }
+
+}
\ No newline at end of file
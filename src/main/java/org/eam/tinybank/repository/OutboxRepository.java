@@ -0,0 +1,35 @@
+package org.eam.tinybank.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import lombok.NonNull;
+import org.eam.tinybank.domain.OutboxEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+
+public interface OutboxRepository extends CrudRepository<OutboxEntity, Long> {
+
+    /**
+     * Locks the oldest events, skipping ones locked by another relay, where the database supports it.
+     * <p>
+     * NOTE that this method must be called in the same transaction with {@link #deletePublished(Collection)} call.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select o from OutboxEntity o order by o.id")
+    List<OutboxEntity> findOldestLocked(@NonNull Limit limit);
+
+    /**
+     * Deletes published events with a single statement.
+     */
+    @Modifying
+    @Query("delete from OutboxEntity o where o.id in :ids")
+    int deletePublished(@NonNull Collection<Long> ids);
+
+}
\ No newline at end of file
@@ -1,42 +1,68 @@
 package org.eam.tinybank.service;
 
-import java.math.BigDecimal;
+import static org.eam.tinybank.util.Jackson.MAPPER;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
+import lombok.SneakyThrows;
 import lombok.extern.log4j.Log4j2;
 import org.eam.tinybank.api.AmountValidateSupport;
 import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.BatchItem;
+import org.eam.tinybank.api.BatchRequest;
+import org.eam.tinybank.api.BatchResponse;
 import org.eam.tinybank.api.CreateAccountRequest;
 import org.eam.tinybank.api.DepositRequest;
+import org.eam.tinybank.api.HistoryEntry;
+import org.eam.tinybank.api.HistoryRequest;
 import org.eam.tinybank.api.TransferRequest;
 import org.eam.tinybank.api.UserValidateSupport;
 import org.eam.tinybank.api.WithdrawRequest;
-import org.eam.tinybank.domain.AccountEntity;
-import org.eam.tinybank.domain.HistoryEntity;
 import org.eam.tinybank.domain.UserEntity;
+import org.eam.tinybank.journal.Journal;
+import org.eam.tinybank.journal.JournalRecord;
+import org.eam.tinybank.ledger.Ledger;
 import org.eam.tinybank.repository.AccountRepository;
 import org.eam.tinybank.repository.HistoryRepository;
-import org.eam.tinybank.repository.UserRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Encapsulates validation and conversion logic for account management operations and calls data access layer. Account
  * operations are only allowed for existing and active users, so every method has a check, and also amount is checked
- * whether needed.
+ * whether needed. Balances are changed by the {@link Ledger} active for the current profile, and then operations are
+ * recorded in the {@link Journal}, if it's enabled. History is read in read-only transactions, which are served by a
+ * replica, if it's configured, so user and account are checked before they start, always reading the primary.
  * <p>
- * NOTE that email is not validated here.
+ * NOTE that email is not validated here. The journal is written after the ledger has applied an operation, so it's an
+ * audit trail rather than a write-ahead log, and an operation that fails to be journaled is still answered with its
+ * response, since it was applied, and counted as a journal failure.
  */
 @Component
 @AllArgsConstructor
 @Log4j2
 public class AccountService {
 
-    private final UserRepository userRepository;
+    private final UserStatusCache userStatusCache;
     private final AccountRepository accountRepository;
     private final HistoryRepository historyRepository;
+    private final Ledger ledger;
+    private final Journal journal;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry registry;
 
     /**
      * Checks if an account exists and create one if it doesn't.
@@ -45,113 +71,163 @@ public class AccountService {
         log.info("Creating account: email={}", request.email());
 
         return invalidUser(request)
-            .orElseGet(() -> create(request.email()));
+            .orElseGet(() -> journaled(ledger.create(request.email()), JournalRecord.Type.CREATE, request.email(),
+                                       null, 0));
     }
 
-    @Transactional
     public ApiResponse deposit(@NonNull DepositRequest request) {
         return invalidAmount(request)
             .or(() -> invalidUser(request))
-            .orElseGet(() -> updateInTransaction(request.email(),
-                                                 a -> Optional.empty(),
-                                                 a -> a.deposited(request.amount()),
-                                                 a -> {
-                                                     historyRepository.save(
-                                                         HistoryEntity.deposit(a.getEmail(), request.amount()));
-                                                     return ApiResponse.deposited(a.getBalance());
-                                                 }));
+            .orElseGet(() -> journaled(ledger.deposit(request.email(), request.minorAmount()),
+                                       JournalRecord.Type.DEPOSIT, request.email(), null, request.minorAmount()));
     }
 
-    @Transactional
     public ApiResponse withdraw(@NonNull WithdrawRequest request) {
         return invalidAmount(request)
             .or(() -> invalidUser(request))
-            .orElseGet(() -> updateInTransaction(request.email(),
-                                                 a -> a.canWithdraw(request.amount())
-                                                     ? Optional.empty()
-                                                     : Optional.of(ApiResponse.insufficientFunds(a.getEmail())),
-                                                 a -> a.withdrawed(request.amount()),
-                                                 a -> {
-                                                     historyRepository.save(
-                                                         HistoryEntity.withdraw(a.getEmail(), request.amount()));
-                                                     return ApiResponse.withdrawed(a.getBalance());
-                                                 }));
-    }
-
-    @Transactional
+            .orElseGet(() -> journaled(ledger.withdraw(request.email(), request.minorAmount()),
+                                       JournalRecord.Type.WITHDRAW, request.email(), null, request.minorAmount()));
+    }
+
     public ApiResponse transfer(@NonNull TransferRequest request) {
         return invalidAmount(request)
             .or(() -> invalidUser(request))
-            .orElseGet(() -> transfer(request.emailFrom(), request.emailTo(), request.amount()));
+            .orElseGet(() -> journaled(ledger.transfer(request.emailFrom(), request.emailTo(), request.minorAmount()),
+                                       JournalRecord.Type.TRANSFER, request.emailFrom(), request.emailTo(),
+                                       request.minorAmount()));
+    }
+
+    /**
+     * Validates every item the same way as single operations. Invalid items reject an atomic batch before anything is
+     * applied, otherwise only valid items are passed to the ledger.
+     */
+    public BatchResponse batch(@NonNull BatchRequest request) {
+        if (request.items().size() > BatchRequest.MAX_ITEMS) {
+            return new BatchResponse(ApiResponse.batchTooLarge(request.items().size()), List.of());
+        }
+
+        var responses = request.items().stream()
+            .map(this::invalidItem)
+            .collect(Collectors.toCollection(ArrayList::new));
+        if (request.atomic() && responses.stream().anyMatch(Optional::isPresent)) {
+            return BatchResponse.of(responses.stream().map(r -> r.orElseGet(ApiResponse::notApplied)).toList(), true);
+        }
+
+        var valid = IntStream.range(0, responses.size()).filter(i -> responses.get(i).isEmpty()).boxed().toList();
+        var applied = ledger.batch(valid.stream().map(request.items()::get).toList(), request.atomic());
+        for (var i = 0; i < valid.size(); i++) {
+            responses.set(valid.get(i), Optional.of(journaled(request.items().get(valid.get(i)), applied.get(i))));
+        }
+
+        return BatchResponse.of(responses.stream().map(Optional::orElseThrow).toList(), request.atomic());
     }
 
     public ApiResponse balance(@NonNull String email) {
         return invalidUser(email)
-            .orElseGet(() -> accountRepository.findById(email)
-                .map(a -> ApiResponse.balance(a.getBalance()))
-                .orElseGet(() -> ApiResponse.accountNotFound(email)));
+            .orElseGet(() -> ledger.balance(email));
     }
 
     public ApiResponse history(@NonNull String email) {
-        return invalidUser(email)
-            .orElseGet(() -> accountRepository.existsById(email)
-                ? ApiResponse.history(historyRepository.findAllByEmail(email))
-                : ApiResponse.accountNotFound(email));
+        return invalidHistory(email)
+            .orElseGet(() -> readOnly(() -> ApiResponse.history(historyRepository.findAllByEmail(email))));
     }
 
     /**
-     * The call is idempotent, so no transaction is needed.
+     * Returns the whole history, or a page of it, if any of paging parameters is given.
      */
-    private ApiResponse create(@NonNull String email) {
-        if (accountRepository.existsById(email)) {
-            return ApiResponse.accountExists();
-        } else {
-            accountRepository.save(AccountEntity.from(email));
-            return ApiResponse.accountCreated();
+    public ApiResponse history(@NonNull HistoryRequest request) {
+        if (!request.paged()) {
+            return history(request.email());
         }
+
+        return invalidHistory(request.email())
+            .orElseGet(() -> request.after()
+                .map(after -> readOnly(() -> historyPage(request, after)))
+                .orElseGet(() -> ApiResponse.invalidCursor(request.cursor())));
     }
 
-    private ApiResponse updateInTransaction(String email,
-                                            Function<AccountEntity, Optional<ApiResponse>> check,
-                                            Function<AccountEntity, AccountEntity> update,
-                                            Function<AccountEntity, ApiResponse> response) {
-        return accountRepository.findById(email)
-            .map(a -> check.apply(a)
-                .orElseGet(() -> response.apply(accountRepository.save(update.apply(a)))))
-            .orElseGet(() -> ApiResponse.accountNotFound(email));
+    /**
+     * Checks user profile and account before history is read, and returns a corresponding response if any is invalid.
+     */
+    public Optional<ApiResponse> invalidHistory(@NonNull String email) {
+        return invalidUser(email)
+            .or(() -> {
+                ledger.flush();
+                return accountRepository.existsById(email)
+                    ? Optional.empty()
+                    : Optional.of(ApiResponse.accountNotFound(email));
+            });
     }
 
     /**
-     * Covers all invariants: when any account does not exist, when sender account has insufficient funds, and when
-     * withdrawal is possible. To avoid deadlocks, locking order is always the same, based on emails comparison for
-     * simplicity, so the method does not look very pretty.
+     * Writes history entries in NDJSON format, reading them with a forward-only cursor, so memory usage does not
+     * depend on history length. Paging parameters other than time range are ignored. NOTE that user and account must
+     * be checked beforehand with {@link #invalidHistory(String)}.
      */
-    private ApiResponse transfer(@NonNull String emailFrom, @NonNull String emailTo, @NonNull BigDecimal amount) {
-        Optional<AccountEntity> from;
-        Optional<AccountEntity> to;
-        if (emailFrom.compareTo(emailTo) < 0) {
-            from = accountRepository.findById(emailFrom);
-            to = accountRepository.findById(emailTo);
-        } else {
-            to = accountRepository.findById(emailTo);
-            from = accountRepository.findById(emailFrom);
+    @Transactional(readOnly = true)
+    public void streamHistory(@NonNull HistoryRequest request, @NonNull OutputStream out) throws IOException {
+        try (var entries = historyRepository.streamAll(request.email(), request.fromOrMin(), request.toOrMax());
+             var generator = MAPPER.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            entries.forEach(e -> write(generator, e));
         }
+    }
 
-        return to
-            .map(aTo -> from.map(aFrom -> aFrom.canWithdraw(amount)
-                    ? transfer(aFrom, aTo, amount)
-                    : ApiResponse.insufficientFunds(emailFrom))
-                .orElseGet(() -> ApiResponse.accountNotFound(emailFrom)))
-            .orElseGet(() -> ApiResponse.accountNotFound(emailTo));
+    private ApiResponse historyPage(HistoryRequest request, HistoryRequest.Position after) {
+        var page = historyRepository.findPage(request.email(), after.timestamp(), after.id(), request.fromOrMin(),
+                                              request.toOrMax(), Limit.of(request.pageSize()));
+        var cursor = page.size() < request.pageSize()
+            ? null
+            : HistoryRequest.cursor(page.getLast().getTimestamp(), page.getLast().getId());
+        return ApiResponse.history(page, cursor);
     }
 
-    private ApiResponse transfer(AccountEntity aFrom, AccountEntity aTo, @NonNull BigDecimal amount) {
-        accountRepository.save(aFrom.withdrawed(amount));
-        accountRepository.save(aTo.deposited(amount));
-        historyRepository.save(HistoryEntity.transferTo(aFrom.getEmail(), aTo.getEmail(), amount));
-        historyRepository.save(HistoryEntity.receiveFrom(aTo.getEmail(), aFrom.getEmail(), amount));
+    private <T> T readOnly(Supplier<T> read) {
+        var template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(true);
+        return template.execute(s -> read.get());
+    }
 
-        return ApiResponse.transferred(aFrom.getEmail(), aTo.getEmail());
+    @SneakyThrows
+    private static void write(JsonGenerator generator, HistoryEntry entry) {
+        MAPPER.writeValue(generator, entry);
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Appends the operation to the journal, if it was applied. A failure is logged and counted, but the response is
+     * kept, as the operation can't be undone, and an error would make the client retry it.
+     */
+    private ApiResponse journaled(ApiResponse response, JournalRecord.Type type, String email, String counterparty,
+                                  long amount) {
+        if (!response.failed()) {
+            try {
+                journal.append(type, email, counterparty, amount);
+            } catch (RuntimeException e) {
+                log.error("Failed to journal applied operation: type={}, email={}", type, email, e);
+                Counter.builder("bank.journal.failures")
+                    .description("Applied operations not appended to the journal, or not forced to disk in time")
+                    .tag("type", type.name())
+                    .register(registry)
+                    .increment();
+            }
+        }
+        return response;
+    }
+
+    private ApiResponse journaled(BatchItem item, ApiResponse response) {
+        return item.deposit() != null
+            ? journaled(response, JournalRecord.Type.DEPOSIT, item.deposit().email(), null, item.minorAmount())
+            : item.withdraw() != null
+            ? journaled(response, JournalRecord.Type.WITHDRAW, item.withdraw().email(), null, item.minorAmount())
+            : journaled(response, JournalRecord.Type.TRANSFER, item.transfer().emailFrom(), item.transfer().emailTo(),
+                        item.minorAmount());
+    }
+
+    private Optional<ApiResponse> invalidItem(BatchItem item) {
+        return item.valid()
+            ? invalidAmount(item).or(() -> invalidUser(item))
+            : Optional.of(ApiResponse.invalidBatchItem());
     }
 
     private static Optional<ApiResponse> invalidAmount(AmountValidateSupport request) {
@@ -171,14 +247,16 @@ public class AccountService {
     }
 
     /**
-     * Checks user profile by email. If the profile is not found or inactive, it returns a corresponding response.
+     * Checks user profile by email, using cached status. If the profile is not found or inactive, it returns a
+     * corresponding response.
      */
-    private Optional<ApiResponse> invalidUser(String email) { // TODO simplify if possible
-        var user = userRepository.findById(email);
-        var response = user.isEmpty() ? ApiResponse.userNotFound(email)
-            : user.filter(UserEntity::inactive).map(u -> ApiResponse.inactive()).orElse(null);
+    private Optional<ApiResponse> invalidUser(String email) {
+        var status = userStatusCache.status(email);
+        if (status.isEmpty()) {
+            return Optional.of(ApiResponse.userNotFound(email));
+        }
 
-        return Optional.ofNullable(response);
+        return status.filter(s -> s == UserEntity.Status.DEACTIVATED).map(s -> ApiResponse.inactive());
     }
 
 }
\ No newline at end of file
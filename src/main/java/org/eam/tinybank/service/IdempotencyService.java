@@ -0,0 +1,194 @@
+package org.eam.tinybank.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.config.properties.AccountProperties;
+import org.eam.tinybank.config.properties.IdempotencyProperties;
+import org.eam.tinybank.domain.IdempotencyEntity;
+import org.eam.tinybank.repository.IdempotencyRepository;
+import org.eam.tinybank.util.Jackson;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Applies an operation once per client given idempotency key, and answers retries with the stored response, so they
+ * never reach account storage. Responses are stored in {@link IdempotencyRepository} for the retention period, and the
+ * most recent ones are cached in memory. Concurrent requests with the same key wait for the first one to complete.
+ * <p>
+ * The key is claimed by inserting the response in the transaction of the operation, which the ledger joins, so the
+ * response is stored if and only if the balance change is committed. A request with the same key on another instance
+ * waits for the insert of the first one, and is rolled back, and the stored response is replayed.
+ * <p>
+ * NOTE that the in-memory ledger persists balances on its own, so with it the key is claimed after the operation is
+ * applied, and a request concurrently retried on another instance is applied again, though its response is not stored.
+ */
+@Component
+@Log4j2
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRepository repository;
+    private final IdempotencyProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountProperties.Locking locking;
+    private final Cache<String, IdempotencyEntity> cache;
+    private final Map<String, CompletableFuture<IdempotencyEntity>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRepository repository,
+                              IdempotencyProperties properties,
+                              TransactionTemplate transactionTemplate,
+                              AccountProperties accountProperties,
+                              MeterRegistry registry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.locking = accountProperties.getLocking();
+        this.cache = CacheBuilder.newBuilder()
+            .maximumSize(properties.getMaxSize())
+            .expireAfterWrite(Duration.ofSeconds(properties.getRetentionSeconds()))
+            .recordStats()
+            .build();
+        GuavaCacheMetrics.monitor(registry, cache, "idempotency");
+    }
+
+    /**
+     * Applies the operation, unless a response for the same key is stored, or is being computed. If no key is given,
+     * the operation is always applied.
+     */
+    public ApiResponse applied(String key, @NonNull Object request, @NonNull Supplier<ApiResponse> operation) {
+        if (key == null || !properties.isEnabled()) {
+            return operation.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ApiResponse.invalidIdempotencyKey(key);
+        }
+
+        var fingerprint = fingerprint(request);
+        var pending = new CompletableFuture<IdempotencyEntity>();
+        var existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            return replayed(awaited(existing), fingerprint);
+        }
+        try {
+            var claimed = claimed(key, fingerprint, operation);
+            cache.put(key, claimed.entity());
+            pending.complete(claimed.entity());
+            return claimed.response();
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    /**
+     * Deletes responses older than the retention period. Cached ones expire on their own.
+     */
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        var deleted = repository.deleteCreatedBefore(retainedAfter());
+        if (deleted > 0) {
+            log.info("Expired idempotency keys deleted: count={}", deleted);
+        }
+    }
+
+    /**
+     * Replays the stored response, or applies the operation and inserts its response in one transaction. If the key is
+     * claimed concurrently, the insert fails, and the stored response is replayed. The transaction is retried on
+     * concurrent update failures, like ledger operations are, since the ledger can't retry a transaction it joined.
+     */
+    @SneakyThrows
+    private Claimed claimed(String key, String fingerprint, Supplier<ApiResponse> operation) {
+        for (var attempt = 1; ; attempt++) {
+            var stored = stored(key);
+            if (stored.isPresent()) {
+                return new Claimed(stored.get(), replayed(stored.get(), fingerprint));
+            }
+            try {
+                return transactionTemplate.execute(s -> {
+                    var response = operation.get();
+                    return new Claimed(repository.inserted(IdempotencyEntity.from(key, fingerprint, response)),
+                                       response);
+                });
+            } catch (DataIntegrityViolationException e) {
+                var claimed = repository.findById(key).orElseThrow(() -> e);
+                log.info("Idempotency key was claimed concurrently: key={}", key);
+                return new Claimed(claimed, replayed(claimed, fingerprint));
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= locking.getMaxAttempts()) {
+                    throw e;
+                }
+                var backoff = locking.getBackoffMs() << (attempt - 1);
+                Thread.sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+            }
+        }
+    }
+
+    /**
+     * Returns the response stored within the retention period, looking it up in the cache first.
+     */
+    private Optional<IdempotencyEntity> stored(String key) {
+        var stored = Optional.ofNullable(cache.getIfPresent(key));
+        if (stored.isEmpty()) {
+            stored = repository.findById(key);
+            stored.ifPresent(e -> cache.put(key, e));
+        }
+        return stored.filter(e -> e.getCreatedAt() >= retainedAfter());
+    }
+
+    private long retainedAfter() {
+        return System.currentTimeMillis() - Duration.ofSeconds(properties.getRetentionSeconds()).toMillis();
+    }
+
+    /**
+     * Returns SHA-256 digest of the request type and JSON, in hex, so it's the same across restarts and instances.
+     */
+    @SneakyThrows
+    private static String fingerprint(Object request) {
+        var digest = MessageDigest.getInstance("SHA-256");
+        digest.update(request.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        digest.update(Jackson.MAPPER.writeValueAsBytes(request));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static ApiResponse replayed(IdempotencyEntity entity, String fingerprint) {
+        return entity.getFingerprint().equals(fingerprint)
+            ? entity.response()
+            : ApiResponse.idempotencyKeyReused(entity.getId());
+    }
+
+    private record Claimed(IdempotencyEntity entity, ApiResponse response) {
+
+    }
+
+    private static IdempotencyEntity awaited(CompletableFuture<IdempotencyEntity> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+}
\ No newline at end of file
@@ -11,7 +11,8 @@ import org.eam.tinybank.repository.UserRepository;
 import org.springframework.stereotype.Component;
 
 /**
- * Encapsulates validation and conversion logic for user management operations, and calls data access layer.
+ * Encapsulates validation and conversion logic for user management operations, and calls data access layer. Every
+ * change of user status is applied to {@link UserStatusCache} as well, so it takes effect on this instance immediately.
  */
 @Component
 @AllArgsConstructor
@@ -19,6 +20,7 @@ import org.springframework.stereotype.Component;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserStatusCache userStatusCache;
 
     /**
      * Checks if request is valid, and stores new user record. If user email exists, returns a specific message.
@@ -33,7 +35,10 @@ public class UserService {
     public ApiResponse deactivate(@NonNull String email) { // TODO transactional
         return userRepository.findById(email)
             .map(u -> userRepository.save(u.deactivated()))
-            .map(u -> ApiResponse.deactivated())
+            .map(u -> {
+                userStatusCache.put(email, u.getStatus());
+                return ApiResponse.deactivated();
+            })
             .orElseGet(() -> ApiResponse.userNotFound(email));
     }
 
@@ -45,6 +50,7 @@ public class UserService {
             return ApiResponse.userExists();
         } else {
             userRepository.save(userEntity);
+            userStatusCache.put(userEntity.getEmail(), userEntity.getStatus());
             return ApiResponse.userCreated();
         }
     }
@@ -0,0 +1,72 @@
+package org.eam.tinybank.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import org.eam.tinybank.config.properties.UserCacheProperties;
+import org.eam.tinybank.domain.UserEntity;
+import org.eam.tinybank.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of user statuses in front of {@link UserRepository}, including absent users. Entries expire after TTL,
+ * which limits staleness when a user is changed on another instance, while changes made on this instance are applied
+ * to the cache immediately.
+ */
+@Component
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final Cache<String, Optional<UserEntity.Status>> cache;
+
+    public UserStatusCache(UserRepository userRepository, UserCacheProperties properties, MeterRegistry registry) {
+        this.userRepository = userRepository;
+        this.enabled = properties.isEnabled();
+        this.cache = CacheBuilder.newBuilder()
+            .maximumSize(properties.getMaxSize())
+            .expireAfterWrite(Duration.ofSeconds(properties.getTtlSeconds()))
+            .recordStats()
+            .build();
+        GuavaCacheMetrics.monitor(registry, cache, "user.status");
+    }
+
+    /**
+     * Returns user status, or empty if the user does not exist. Must not be called in read-only transactions, which
+     * may be served by a replica, where the user may not exist yet, while absence is cached.
+     */
+    @SneakyThrows
+    public Optional<UserEntity.Status> status(@NonNull String email) {
+        return enabled ? cache.get(email, () -> loaded(email)) : loaded(email);
+    }
+
+    public void put(@NonNull String email, @NonNull UserEntity.Status status) {
+        cache.put(email, Optional.of(status));
+    }
+
+    public void invalidate(@NonNull String email) {
+        cache.invalidate(email);
+    }
+
+    /**
+     * Returns hit, miss and eviction counters, accumulated since the start.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    private Optional<UserEntity.Status> loaded(String email) {
+        return userRepository.findById(email).map(UserEntity::getStatus);
+    }
+
+}
\ No newline at end of file
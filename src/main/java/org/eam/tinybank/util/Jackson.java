@@ -7,15 +7,20 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.SneakyThrows;
+import org.eam.tinybank.api.ApiResponseSerializer;
+import org.eam.tinybank.api.ResponseFormat;
 
 /**
- * Encapsulates preconfigured shared instance of {@link ObjectMapper}, which doesn't fail on unknown properties.
+ * Encapsulates preconfigured shared instance of {@link ObjectMapper}, which doesn't fail on unknown properties, and
+ * writes API responses in compatibility format. Use the application {@code ObjectMapper} to respect the configured
+ * format.
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class Jackson {
 
     public static final ObjectMapper MAPPER = new ObjectMapper()
-        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .registerModule(ApiResponseSerializer.module(ResponseFormat.MESSAGE));
 
     @SneakyThrows
     public static <T> String asString(@NonNull T value) {
@@ -0,0 +1,59 @@
+-- Schema as it was generated by Hibernate, written in SQL common to H2 and Postgres
+create sequence history_seq start with 1 increment by 100;
+create sequence outbox_seq start with 1 increment by 100;
+
+create table user_entity (
+    email varchar(255) not null,
+    firstname varchar(255),
+    lastname varchar(255),
+    status varchar(32),
+    primary key (email)
+);
+
+create table account_entity (
+    email varchar(255) not null,
+    balance bigint not null,
+    version bigint,
+    primary key (email)
+);
+
+create table account_slot_entity (
+    email varchar(255) not null,
+    slot integer not null,
+    balance bigint not null,
+    primary key (slot, email)
+);
+
+-- Account history is read by email in order of operations, optionally within a time range, so the index covers both
+-- filtering and ordering, and pages are read without sorting
+create table history_entity (
+    id bigint not null,
+    email varchar(255),
+    timestamp bigint,
+    description varchar(255),
+    type smallint,
+    amount bigint not null,
+    primary key (id)
+);
+create index history_email_timestamp_id on history_entity (email, timestamp, id);
+
+create table outbox_entity (
+    id bigint not null,
+    email varchar(255),
+    timestamp bigint not null,
+    description varchar(255),
+    type smallint,
+    amount bigint not null,
+    primary key (id)
+);
+
+create table idempotency_entity (
+    id varchar(255) not null,
+    fingerprint integer not null,
+    message varchar(255),
+    outcome varchar(255),
+    reason varchar(32),
+    created_at bigint not null,
+    primary key (id)
+);
+create index idempotency_created_at on idempotency_entity (created_at);
\ No newline at end of file
@@ -0,0 +1,17 @@
+-- History ids are reserved by JPA in blocks of the sequence increment, so a larger one means fewer sequence calls under
+-- load. Ids already reserved are below the next value, so changing the increment doesn't reuse them.
+alter sequence history_seq increment by 1000;
+
+-- Columns which are never null in entities
+alter table user_entity alter column status set not null;
+alter table history_entity alter column email set not null;
+alter table history_entity alter column timestamp set not null;
+alter table history_entity alter column description set not null;
+alter table history_entity alter column type set not null;
+alter table outbox_entity alter column email set not null;
+alter table outbox_entity alter column description set not null;
+alter table outbox_entity alter column type set not null;
+
+-- Amounts are minor units in bigint, so no precision is lost, and balances are never negative
+alter table account_entity add constraint account_balance_non_negative check (balance >= 0);
+alter table account_slot_entity add constraint account_slot_balance_non_negative check (balance >= 0);
\ No newline at end of file
@@ -0,0 +1,2 @@
+-- Kind of stored responses, so typed details are restored from the message. Responses stored before have none.
+alter table idempotency_entity add column kind varchar(32);
\ No newline at end of file
@@ -0,0 +1,7 @@
+-- Heartbeat is written to the primary and read from a replica, to measure replication lag, see ReplicaMonitor
+create table replica_heartbeat (
+    id integer not null,
+    timestamp bigint not null,
+    primary key (id)
+);
+insert into replica_heartbeat (id, timestamp) values (1, 0);
\ No newline at end of file
@@ -0,0 +1,3 @@
+-- Fingerprints are SHA-256 digests of request JSON in hex. Ones stored before never match a digest, so a retry of an
+-- earlier request is rejected as key reuse, rather than applied twice.
+alter table idempotency_entity alter column fingerprint set data type varchar(64);
\ No newline at end of file
@@ -0,0 +1,42 @@
+-- Postgres only, see application-partitioned.properties. History is partitioned by month of operation timestamp, so
+-- queries within a time range scan only matching partitions, and old partitions can be detached instead of deleted.
+-- The primary key must include the partition key. Rows outside of created partitions go to the default one. Versioned
+-- after the latest main migration, and columns are declared as they are at that version.
+alter table history_entity rename to history_entity_unpartitioned;
+alter index history_email_timestamp_id rename to history_email_timestamp_id_unpartitioned;
+
+create table history_entity (
+    id bigint not null,
+    email varchar(255) not null,
+    timestamp bigint not null,
+    description varchar(255) not null,
+    type smallint not null,
+    amount bigint not null,
+    primary key (id, timestamp)
+) partition by range ("timestamp");
+create index history_email_timestamp_id on history_entity (email, timestamp, id);
+create table history_entity_default partition of history_entity default;
+
+-- Creates monthly partitions from the given month, months ahead, skipping existing ones
+create function create_history_partitions(start_month date, months integer) returns void as $$
+declare
+    month date;
+begin
+    for i in 0..months - 1 loop
+        month := date_trunc('month', start_month) + make_interval(months => i);
+        execute format('create table if not exists %I partition of history_entity for values from (%s) to (%s)',
+                       'history_entity_' || to_char(month, 'YYYY_MM'),
+                       (extract(epoch from month) * 1000)::bigint,
+                       (extract(epoch from month + interval '1 month') * 1000)::bigint);
+    end loop;
+end;
+$$ language plpgsql;
+
+select create_history_partitions(
+    coalesce((select to_timestamp(min("timestamp") / 1000)::date from history_entity_unpartitioned), current_date),
+    coalesce((select (extract(year from age(current_date, to_timestamp(min("timestamp") / 1000)::date)) * 12
+                      + extract(month from age(current_date, to_timestamp(min("timestamp") / 1000)::date)))::integer
+              from history_entity_unpartitioned), 0) + 13);
+
+insert into history_entity select id, email, timestamp, description, type, amount from history_entity_unpartitioned;
+drop table history_entity_unpartitioned;
\ No newline at end of file
@@ -2,19 +2,29 @@ package org.eam.tinybank;
 
 import static org.eam.tinybank.util.Jackson.asString;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.SneakyThrows;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.api.BatchItem;
+import org.eam.tinybank.api.BatchRequest;
 import org.eam.tinybank.api.CreateAccountRequest;
 import org.eam.tinybank.api.CreateUserRequest;
 import org.eam.tinybank.api.DepositRequest;
@@ -28,9 +38,9 @@ import org.springframework.test.web.servlet.MockMvc;
 
 /**
  * Tests ALL application endpoints and their possible outcomes, generating a random email for each test execution. Some
- * tests are overlapping.
+ * tests are overlapping. Responses are checked by their messages, so the compatibility format is used.
  */
-@SpringBootTest
+@SpringBootTest(properties = "api.response-format=MESSAGE")
 @AutoConfigureMockMvc
 class TinyBankTest {
 
@@ -38,6 +48,8 @@ class TinyBankTest {
 
     @Autowired
     private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry registry;
 
     /**
      * Also, tests that create endpoint is idempotent, and deactivate endpoint returns an error.
@@ -63,6 +75,34 @@ class TinyBankTest {
             .andExpect(content().string(containsString("User not found: email=test@test.com")));
     }
 
+    @Test
+    void shouldDeclineOperationsOfDeactivatedUser() throws Exception {
+        var userRequest = createUserRequest();
+        mockMvc.perform(post("/api/user/create").contentType(APPLICATION_JSON_VALUE).content(asString(userRequest)))
+            .andExpect(status().isOk());
+
+        var accountRequest = new CreateAccountRequest(userRequest.email());
+        mockMvc.perform(
+                post("/api/account/create").contentType(APPLICATION_JSON_VALUE).content(asString(accountRequest)))
+            .andExpect(status().isOk());
+
+        var depositRequest = new DepositRequest(userRequest.email(), BigDecimal.TEN);
+        mockMvc.perform(
+                post("/api/account/deposit").contentType(APPLICATION_JSON_VALUE).content(asString(depositRequest)))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/user/deactivate?email=" + userRequest.email()))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(
+                post("/api/account/deposit").contentType(APPLICATION_JSON_VALUE).content(asString(depositRequest)))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string(containsString("User is inactive")));
+        mockMvc.perform(get("/api/account/balance?email=%s".formatted(userRequest.email())))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string(containsString("User is inactive")));
+    }
+
     /**
      * Also, tests that create endpoint calls are idempotent.
      */
@@ -197,6 +237,41 @@ class TinyBankTest {
                                                            .formatted(userRequest1.email()))));
     }
 
+    @Test
+    void shouldApplyBatch() throws Exception {
+        var userRequest1 = createUserRequest();
+        var userRequest2 = createUserRequest();
+        for (var userRequest : List.of(userRequest1, userRequest2)) {
+            mockMvc.perform(
+                    post("/api/user/create").contentType(APPLICATION_JSON_VALUE).content(asString(userRequest)))
+                .andExpect(status().isOk());
+            mockMvc.perform(post("/api/account/create").contentType(APPLICATION_JSON_VALUE)
+                                .content(asString(new CreateAccountRequest(userRequest.email()))))
+                .andExpect(status().isOk());
+        }
+
+        var batchRequest = new BatchRequest(List.of(
+            BatchItem.of(new DepositRequest(userRequest1.email(), BigDecimal.valueOf(100))),
+            BatchItem.of(transferRequest(userRequest1.email(), userRequest2.email(), BigDecimal.valueOf(30))),
+            BatchItem.of(new WithdrawRequest(userRequest2.email(), BigDecimal.valueOf(50)))), null);
+        mockMvc.perform(post("/api/account/batch").contentType(APPLICATION_JSON_VALUE).content(asString(batchRequest)))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string(containsString("Batch rejected: failed=1")))
+            .andExpect(content().string(containsString("Insufficient funds: %s".formatted(userRequest2.email()))));
+        mockMvc.perform(get("/api/account/balance?email=%s".formatted(userRequest1.email())))
+            .andExpect(content().string(containsString("Balance: 0")));
+
+        batchRequest = new BatchRequest(batchRequest.items(), BatchRequest.Mode.PER_ITEM);
+        mockMvc.perform(post("/api/account/batch").contentType(APPLICATION_JSON_VALUE).content(asString(batchRequest)))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("Batch applied: succeeded=2, failed=1")))
+            .andExpect(content().string(containsString("Account was deposited: balance=100")));
+        mockMvc.perform(get("/api/account/balance?email=%s".formatted(userRequest1.email())))
+            .andExpect(content().string(containsString("Balance: 70")));
+        mockMvc.perform(get("/api/account/balance?email=%s".formatted(userRequest2.email())))
+            .andExpect(content().string(containsString("Balance: 30")));
+    }
+
     @Test
     void shouldReturnCorrectBalanceInMultithreaded() throws Exception {
         var userRequest = createUserRequest();
@@ -302,6 +377,98 @@ class TinyBankTest {
             .andExpect(content().string(containsString("description=Withdraw: 10.00, amount=10.00")));
     }
 
+    @Test
+    void shouldPaginateAndStreamHistory() throws Exception {
+        var userRequest = createUserRequest();
+        mockMvc.perform(post("/api/user/create").contentType(APPLICATION_JSON_VALUE).content(asString(userRequest)))
+            .andExpect(status().isOk());
+
+        var accountRequest = new CreateAccountRequest(userRequest.email());
+        mockMvc.perform(
+                post("/api/account/create").contentType(APPLICATION_JSON_VALUE).content(asString(accountRequest)))
+            .andExpect(status().isOk());
+
+        for (var i = 1; i <= 3; i++) {
+            var depositRequest = new DepositRequest(userRequest.email(), BigDecimal.valueOf(i));
+            mockMvc.perform(
+                    post("/api/account/deposit").contentType(APPLICATION_JSON_VALUE).content(asString(depositRequest)))
+                .andExpect(status().isOk());
+        }
+
+        var firstPage = mockMvc.perform(get("/api/account/history?email=%s&limit=2".formatted(userRequest.email())))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("description=Deposit: 1.00, amount=1.00")))
+            .andExpect(content().string(containsString("description=Deposit: 2.00, amount=2.00")))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        var cursor = firstPage.replaceAll(".*cursor=(\\d+-\\d+).*", "$1");
+
+        mockMvc.perform(get("/api/account/history?email=%s&limit=2&cursor=%s".formatted(userRequest.email(), cursor)))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("description=Deposit: 3.00, amount=3.00")))
+            .andExpect(content().string(not(containsString("cursor="))));
+
+        mockMvc.perform(get("/api/account/history?email=%s&cursor=abc".formatted(userRequest.email())))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string(containsString("Invalid cursor: abc")));
+
+        var stream = mockMvc.perform(get("/api/account/history/stream?email=%s".formatted(userRequest.email())))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(stream))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(APPLICATION_NDJSON_VALUE))
+            .andExpect(content().string(containsString("\"description\":\"Deposit: 1.00\"")))
+            .andExpect(content().string(containsString("\"description\":\"Deposit: 3.00\"")));
+    }
+
+    @Test
+    void shouldReplayRetriedOperationWithSameIdempotencyKey() throws Exception {
+        var userRequest = createUserRequest();
+        mockMvc.perform(
+                post("/api/user/create").contentType(APPLICATION_JSON_VALUE).content(asString(userRequest)))
+            .andExpect(status().isOk());
+        var accountRequest = new CreateAccountRequest(userRequest.email());
+        mockMvc.perform(
+                post("/api/account/create").contentType(APPLICATION_JSON_VALUE).content(asString(accountRequest)))
+            .andExpect(status().isOk());
+
+        var key = RandomStringUtils.randomAlphanumeric(16);
+        var depositRequest = new DepositRequest(userRequest.email(), BigDecimal.valueOf(100));
+        for (var i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/account/deposit").header("Idempotency-Key", key)
+                                .contentType(APPLICATION_JSON_VALUE).content(asString(depositRequest)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Account was deposited: balance=100.00")));
+        }
+        mockMvc.perform(get("/api/account/balance?email=%s".formatted(userRequest.email())))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("Balance: 100.00")));
+
+        var withdrawRequest = new WithdrawRequest(userRequest.email(), BigDecimal.valueOf(100));
+        mockMvc.perform(post("/api/account/withdraw").header("Idempotency-Key", key)
+                            .contentType(APPLICATION_JSON_VALUE).content(asString(withdrawRequest)))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string(containsString("Idempotency key was used for another request")));
+    }
+
+    /**
+     * Also, tests that failure reason is not exposed in responses.
+     */
+    @Test
+    void shouldCountResponsesByReason() throws Exception {
+        var counter = registry.counter("bank.responses", "status", "FAILED", "reason", "USER_NOT_FOUND");
+        var count = counter.count();
+
+        mockMvc.perform(patch("/api/user/deactivate?email=test@test.com"))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string(not(containsString("reason"))));
+
+        assertEquals(count + 1, counter.count());
+        assertFalse(registry.find("http.server.requests").tag("uri", "/api/user/deactivate").timers().isEmpty());
+    }
+
     private static CreateUserRequest createUserRequest() {
         return new CreateUserRequest("test", "test", RandomStringUtils.randomAlphabetic(10) + "@test.com");
     }
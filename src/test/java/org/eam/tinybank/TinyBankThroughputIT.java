@@ -1,16 +1,16 @@
 package org.eam.tinybank;
 
-import static org.assertj.core.api.Fail.fail;
 import static org.eam.tinybank.util.Jackson.MAPPER;
 
-import com.google.common.util.concurrent.RateLimiter;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 import lombok.SneakyThrows;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.RandomStringUtils;
@@ -20,18 +20,25 @@ import org.eam.tinybank.api.CreateUserRequest;
 import org.eam.tinybank.api.DepositRequest;
 import org.eam.tinybank.config.ThroughputTestConfiguration;
 import org.eam.tinybank.config.properties.ThroughputTestProperties;
+import org.eam.tinybank.load.LoadGenerator;
+import org.eam.tinybank.load.LoadReport;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpStatus;
 
 /**
- * Generates transactions and calculates latencies.
+ * Starts the application with H2 store on a random port, generates a mixed load with {@link LoadGenerator}, and
+ * reports latency percentiles.
  * <p>
- * Example for H2 store with service running locally: Latencies: averageMs=2.0566666666666666, maxMs = 7.0
+ * Example for 50 requests per second during 30s, 100 accounts with Zipfian exponent 1.0, on a single CPU shared with
+ * the generator: TOTAL count=1500, meanMs=39.61, p50.0Ms=17.20, p90.0Ms=106.95, p99.0Ms=196.87, maxMs=452.46
  */
-@SpringBootTest(classes = ThroughputTestConfiguration.class)
+@SpringBootTest(classes = {TinyBankApplication.class, ThroughputTestConfiguration.class},
+    webEnvironment = WebEnvironment.RANDOM_PORT)
 @Log4j2
 public class TinyBankThroughputIT {
 
@@ -39,104 +46,62 @@ public class TinyBankThroughputIT {
 
     @Autowired
     private ThroughputTestProperties properties;
+    @LocalServerPort
+    private int port;
 
     @Test
     void shouldRespondInTime() {
         var emails = createdProfilesAndAccounts();
-        var latencies = generatedTransactions(emails);
-        checkLatencies(latencies);
+        var report = new LoadGenerator(baseUri(), emails, properties).run();
+        checkLatencies(report);
     }
 
-    @SneakyThrows
-    private ArrayList<String> createdProfilesAndAccounts() {
+    /**
+     * Creates profiles concurrently, one virtual thread per profile.
+     */
+    private List<String> createdProfilesAndAccounts() {
         log.info("Creating profiles and accounts: count={}", properties.getProfilesCount());
-        var emails = new ArrayList<String>();
-
-        for (var i = 0; i < properties.getProfilesCount(); i++) {
-            var userRequest = new CreateUserRequest("test", "test",
-                                                    "%s@test.com".formatted(RandomStringUtils.randomAlphabetic(8)));
-
-            var request = HttpRequest.newBuilder()
-                .uri(new URI("http://localhost:8080/api/user/create"))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(userRequest)))
-                .build();
-            var response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            Assertions.assertEquals(HttpStatus.OK.value(), response.statusCode());
-
-            var accountRequest = new CreateAccountRequest(userRequest.email());
-            request = HttpRequest.newBuilder()
-                .uri(new URI("http://localhost:8080/api/account/create"))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(accountRequest)))
-                .build();
-            response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            Assertions.assertEquals(HttpStatus.OK.value(), response.statusCode());
-
-            var depositRequest = new DepositRequest(userRequest.email(),
-                                                    BigDecimal.valueOf(RandomUtils.nextInt(5000, 10_000)));
-            request = HttpRequest.newBuilder()
-                .uri(new URI("http://localhost:8080/api/account/deposit"))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(depositRequest)))
-                .build();
-            response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            Assertions.assertEquals(HttpStatus.OK.value(), response.statusCode());
-
-            emails.add(userRequest.email());
+        List<Future<String>> emails;
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            emails = IntStream.range(0, properties.getProfilesCount())
+                .mapToObj(i -> executor.submit(this::createdProfileAndAccount))
+                .toList();
         }
-
-        return emails;
+        return emails.stream().map(Future::resultNow).toList();
     }
 
     @SneakyThrows
-    private List<Long> generatedTransactions(List<String> emails) {
-        log.info("Generating transactions: durationInSeconds={}, requestsPerSecond={}",
-                 properties.getDurationInSeconds(), properties.getRequestsPerSecond());
-        var latencies = new ArrayList<Long>();
-
-        var total = properties.getRequestsPerSecond() * properties.getDurationInSeconds();
-        var count = 0;
-        var limiter = RateLimiter.create(properties.getRequestsPerSecond());
-        while (count++ < total) {
-            limiter.acquire();
-            var started = System.currentTimeMillis();
-// TODO multithreaded deposit/withdraw/balance requests
-            var depositRequest = new DepositRequest(emails.get(RandomUtils.nextInt(0, emails.size())),
-                                                    BigDecimal.valueOf(RandomUtils.nextDouble(0, 100)));
-            var request = HttpRequest.newBuilder()
-                .uri(new URI("http://localhost:8080/api/account/deposit"))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(depositRequest)))
-                .build();
-            var response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != HttpStatus.OK.value()) {
-                fail("Service call failed: response={}", response.body());
-            }
-
-            if (count % 100 == 0) {
-                log.info("Sent and received: count={}", count);
-            }
+    private String createdProfileAndAccount() {
+        var userRequest = new CreateUserRequest("test", "test",
+                                                "%s@test.com".formatted(RandomStringUtils.randomAlphabetic(8)));
+        post("user/create", userRequest);
+        post("account/create", new CreateAccountRequest(userRequest.email()));
+        post("account/deposit", new DepositRequest(userRequest.email(),
+                                                   BigDecimal.valueOf(RandomUtils.nextInt(5000, 10_000))));
+        return userRequest.email();
+    }
 
-            latencies.add(System.currentTimeMillis() - started);
-        }
+    @SneakyThrows
+    private void post(String path, Object body) {
+        var request = HttpRequest.newBuilder()
+            .uri(baseUri().resolve("/api/" + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+            .build();
+        var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(HttpStatus.OK.value(), response.statusCode(), response.body());
+    }
 
-        return latencies;
+    private URI baseUri() {
+        return URI.create("http://localhost:%s".formatted(port));
     }
 
-    private void checkLatencies(List<Long> latencies) {
-        double avg = latencies.stream()
-            .mapToLong(Long::longValue)
-            .average()
-            .orElseThrow();
-        double max = latencies.stream()
-            .mapToLong(Long::longValue)
-            .max()
-            .orElseThrow();
-        log.info("Latencies: averageMs={}, maxMs = {}", avg, max);
+    private void checkLatencies(LoadReport report) {
+        log.info("Latencies:\n{}", report.summary());
 
+        Assertions.assertEquals(0, report.errors(), "Unexpected errors: " + report.errors());
         Assertions.assertTrue(
-            avg < properties.getMaxLatencyMs(),
+            report.meanMs() < properties.getMaxLatencyMs(),
             "Average latency is too high, should be below %s ms".formatted(properties.getMaxLatencyMs())
         );
     }
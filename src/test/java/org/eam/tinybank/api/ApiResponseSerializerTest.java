@@ -0,0 +1,54 @@
+package org.eam.tinybank.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+import org.eam.tinybank.domain.OperationType;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that structured responses have typed fields, and that compatibility mode writes the same messages as
+ * {@link ApiResponse#message()}, whether they are written from templates or formatted.
+ */
+class ApiResponseSerializerTest {
+
+    private static final ObjectMapper STRUCTURED = new ObjectMapper()
+        .registerModule(ApiResponseSerializer.module(ResponseFormat.STRUCTURED));
+    private static final ObjectMapper MESSAGE = new ObjectMapper()
+        .registerModule(ApiResponseSerializer.module(ResponseFormat.MESSAGE));
+
+    @Test
+    void shouldWriteTypedFields() throws JsonProcessingException {
+        assertEquals("{\"status\":\"SUCCESS\",\"result\":\"DEPOSITED\",\"balance\":-12.05}",
+                     STRUCTURED.writeValueAsString(ApiResponse.deposited(-1_205)));
+        assertEquals("{\"status\":\"FAILED\",\"result\":\"INSUFFICIENT_FUNDS\",\"email\":\"a@test.com\"}",
+                     STRUCTURED.writeValueAsString(ApiResponse.insufficientFunds("a@test.com")));
+        assertEquals("{\"status\":\"SUCCESS\",\"result\":\"USER_CREATED\"}",
+                     STRUCTURED.writeValueAsString(ApiResponse.userCreated()));
+        assertEquals("{\"status\":\"SUCCESS\",\"result\":\"HISTORY\",\"entries\":[{\"id\":1,\"timestamp\":2,"
+                         + "\"type\":\"DEPOSIT\",\"description\":\"Deposit: 1.00\",\"amount\":1.00}],\"cursor\":\"2-1\"}",
+                     STRUCTURED.writeValueAsString(ApiResponse.historyEntries(
+                         List.of(new HistoryEntry(1L, 2L, OperationType.DEPOSIT, "Deposit: 1.00", 100)), "2-1")));
+    }
+
+    @Test
+    void shouldWriteMessagesInCompatibilityMode() throws JsonProcessingException {
+        var responses = Stream.of(ApiResponse.deposited(123_456), ApiResponse.balance(-5), ApiResponse.userCreated(),
+                                  ApiResponse.userNotFound("a@test.com"), ApiResponse.insufficientFunds("a\"b@test.com"),
+                                  ApiResponse.transferred("a@test.com", "b@test.com"),
+                                  ApiResponse.invalidAmount(new BigDecimal("0.001")), ApiResponse.batchApplied(2, 1),
+                                  ApiResponse.error(new IllegalStateException("Failed")));
+        for (var response : responses.toList()) {
+            var expected = new ObjectMapper().createObjectNode()
+                .put("message", response.message())
+                .put("status", response.outcome());
+            assertEquals(expected, MESSAGE.readTree(MESSAGE.writeValueAsString(response)));
+        }
+        assertEquals("Account was deposited: balance=1234.56", ApiResponse.deposited(123_456).message());
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package org.eam.tinybank.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that responses are restored with their typed details from the stored kind and message.
+ */
+class ApiResponseTest {
+
+    @Test
+    void shouldRestoreStoredResponses() {
+        Stream.of(ApiResponse.deposited(123_456), ApiResponse.withdrawed(-5), ApiResponse.inactive(),
+                  ApiResponse.transferred("a@test.com", "b@test.com"), ApiResponse.insufficientFunds("a@test.com"),
+                  ApiResponse.invalidAmount(new BigDecimal("0.001")), ApiResponse.overloaded(),
+                  ApiResponse.error(new IllegalStateException("Failed")))
+            .forEach(r -> assertEquals(r, ApiResponse.restored(r.kind(), r.message(), r.outcome(), r.reason())));
+    }
+
+    @Test
+    void shouldRestoreMessageOnlyWithoutKind() {
+        var response = ApiResponse.batchApplied(2, 1);
+        var restored = ApiResponse.restored(null, response.message(), response.outcome(), response.reason());
+
+        assertEquals(ApiResponse.Kind.RESTORED, restored.kind());
+        assertEquals(response.message(), restored.message());
+        assertEquals(response.outcome(), restored.outcome());
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package org.eam.tinybank.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.List;
+import org.eam.tinybank.config.properties.PoolProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Tests that the primary pool is sized from cores and bounded by measured database concurrency, and that the self-check warns
+ * about disabled batching and about admission beyond pool size.
+ */
+@SpringBootTest(properties = {"pool.auto-size=true", "pool.max-concurrency=2",
+    "spring.jpa.properties.hibernate.jdbc.batch_size=1", "admission.enabled=true", "admission.max-concurrent=10"})
+class DataSourceSelfCheckTest {
+
+    @Autowired
+    private HikariDataSource dataSource;
+    @Autowired
+    private DataSourceSelfCheck selfCheck;
+    @Autowired
+    private PoolSizing poolSizing;
+
+    @Test
+    void shouldSizePool() {
+        var properties = new PoolProperties();
+        assertEquals(17, PoolSizing.size(8, properties));
+        properties.setMaxConcurrency(12);
+        assertEquals(12, PoolSizing.size(8, properties));
+
+        assertEquals(2, dataSource.getMaximumPoolSize());
+        assertEquals(2, dataSource.getMinimumIdle());
+
+        var replica = new HikariDataSource();
+        replica.setMaximumPoolSize(5);
+        poolSizing.postProcessBeforeInitialization(replica, "replicaDataSource");
+        assertEquals(5, replica.getMaximumPoolSize());
+    }
+
+    @Test
+    void shouldWarnAboutThroughputLimits() {
+        assertEquals(List.of("JDBC batching is disabled, set spring.jpa.properties.hibernate.jdbc.batch_size",
+                             "Admission allows 10 requests at once for 2 connections"), selfCheck.warnings());
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package org.eam.tinybank.config;
+
+import org.eam.tinybank.config.properties.StressTestProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+@Configuration
+@EnableConfigurationProperties
+@Import(StressTestProperties.class)
+public class StressTestConfiguration {
+
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package org.eam.tinybank.config.properties;
+
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.Data;
+import org.eam.tinybank.load.Operation;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "stress")
+@Data
+public class StressTestProperties {
+
+    private int accounts = 20;
+    private int threads = 16;
+    private int durationInSeconds = 5;
+    /**
+     * Balance of every account before the run, and the largest amount of an operation, in minor units
+     */
+    private long initialBalance = 100_000;
+    private long maxAmount = 20_000;
+    private long checkIntervalMs = 100;
+    /**
+     * An operation running longer is reported as stalled, e.g. waiting for a lock held by a stalled transaction
+     */
+    private long stallMs = 10_000;
+    /**
+     * Relative weights of operations
+     */
+    private Map<Operation, Integer> mix = new EnumMap<>(Map.of(Operation.DEPOSIT, 30, Operation.WITHDRAW, 30,
+                                                                Operation.TRANSFER, 40));
+
+}
\ No newline at end of file
@@ -1,6 +1,9 @@
 package org.eam.tinybank.config.properties;
 
+import java.util.EnumMap;
+import java.util.Map;
 import lombok.Data;
+import org.eam.tinybank.load.Operation;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "throughput")
@@ -11,5 +14,14 @@ public class ThroughputTestProperties {
     private int requestsPerSecond;
     private int durationInSeconds;
     private int maxLatencyMs;
+    /**
+     * Skew of account popularity, where zero means uniform, and one means the first account gets ~20% of requests
+     * for 100 accounts
+     */
+    private double zipfExponent;
+    /**
+     * Relative weights of operations
+     */
+    private Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
 
-}
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package org.eam.tinybank.controller;
+
+import static org.eam.tinybank.util.Jackson.MAPPER;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import lombok.SneakyThrows;
+import org.eam.tinybank.config.properties.AdmissionProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Tests that requests over the limit wait for admission, and are rejected after the timeout, and that async requests
+ * hold their permit until completion.
+ */
+class AdmissionFilterTest {
+
+    @Test
+    @SneakyThrows
+    void shouldRejectRequestNotAdmittedInTime() {
+        var properties = new AdmissionProperties();
+        properties.setMaxConcurrent(1);
+        properties.setTimeoutMs(50);
+        var registry = new SimpleMeterRegistry();
+        var filter = new AdmissionFilter(properties, registry, MAPPER);
+
+        var admitted = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var first = CompletableFuture.runAsync(() -> filter(filter, new MockFilterChain() {
+            @Override
+            @SneakyThrows
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                admitted.countDown();
+                release.await();
+            }
+        }));
+        admitted.await();
+
+        var rejected = filter(filter, new MockFilterChain());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), rejected.getStatus());
+        assertThat(rejected.getContentAsString(), containsString("Service is overloaded"));
+        assertEquals(1, registry.get("bank.admission.active").gauge().value());
+
+        release.countDown();
+        first.join();
+        assertEquals(HttpStatus.OK.value(), filter(filter, new MockFilterChain()).getStatus());
+        assertEquals(1, registry.get("bank.admission.rejected").counter().count());
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldHoldPermitUntilAsyncCompletion() {
+        var properties = new AdmissionProperties();
+        properties.setMaxConcurrent(1);
+        properties.setTimeoutMs(50);
+        var registry = new SimpleMeterRegistry();
+        var filter = new AdmissionFilter(properties, registry, MAPPER);
+
+        var request = new MockHttpServletRequest("GET", "/api/account/history/stream");
+        request.setAsyncSupported(true);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                request.startAsync();
+            }
+        });
+        assertEquals(1, registry.get("bank.admission.active").gauge().value());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), filter(filter, new MockFilterChain()).getStatus());
+
+        request.getAsyncContext().complete();
+        assertEquals(0, registry.get("bank.admission.active").gauge().value());
+        assertEquals(HttpStatus.OK.value(), filter(filter, new MockFilterChain()).getStatus());
+    }
+
+    @SneakyThrows
+    private static MockHttpServletResponse filter(AdmissionFilter filter, MockFilterChain chain) {
+        var response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/account/deposit"), response, chain);
+        return response;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package org.eam.tinybank.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    @Test
+    void shouldConvertBetweenMajorAndMinorUnits() {
+        assertEquals(1234, Money.toMinor(new BigDecimal("12.34")));
+        assertEquals(1200, Money.toMinor(new BigDecimal("12")));
+        assertEquals(1230, Money.toMinor(new BigDecimal("12.300")));
+        assertEquals(new BigDecimal("12.34"), Money.toMajor(1234));
+    }
+
+    @Test
+    void shouldWriteMajorUnitsToBuffer() {
+        for (var amount : new long[]{0, 5, -5, 1234, -1234, 100, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            var buffer = new char[Money.MAX_CHARS];
+            var start = Money.toMajor(amount, buffer);
+            assertEquals(Money.toMajor(amount).toPlainString(), new String(buffer, start, buffer.length - start));
+        }
+    }
+
+    @Test
+    void shouldRejectAmountsWhichDoNotFit() {
+        assertTrue(Money.fits(new BigDecimal("0.01")));
+        assertFalse(Money.fits(new BigDecimal("0.001")));
+        assertFalse(Money.fits(new BigDecimal("1e20")));
+        assertThrows(ArithmeticException.class, () -> Money.toMinor(new BigDecimal("0.001")));
+    }
+
+    @Test
+    void shouldCheckOverflow() {
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> AccountEntity.from("test@test.com").withdrawed(Long.MIN_VALUE));
+        assertFalse(AccountEntity.from("test@test.com").canWithdraw(Long.MAX_VALUE));
+    }
+
+}
\ No newline at end of file
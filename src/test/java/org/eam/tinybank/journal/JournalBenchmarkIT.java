@@ -0,0 +1,68 @@
+package org.eam.tinybank.journal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.config.properties.JournalProperties;
+import org.eam.tinybank.domain.HistoryEntity;
+import org.eam.tinybank.repository.HistoryWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compares append throughput of the journal, waiting for group fsync, with history inserts, one transaction per
+ * operation, as in the request path.
+ * <p>
+ * Example for H2 store, 16 threads, 5s per run, on a single CPU: journal: ops/s=2361; history: ops/s=497. Journal
+ * throughput is bounded by threads per fsync interval, since every append waits for the next fsync.
+ */
+@SpringBootTest
+@Log4j2
+class JournalBenchmarkIT {
+
+    private static final int THREADS = 16;
+    private static final long DURATION_MS = 5_000;
+
+    @TempDir
+    private Path directory;
+    @Autowired
+    private HistoryWriter historyWriter;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void shouldCompareJournalWithHistoryInserts() throws IOException {
+        var properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        var journal = new Journal(properties);
+        run("journal", () -> journal.append(JournalRecord.Type.DEPOSIT, "bench@test.com", null, 100));
+        journal.close();
+
+        run("history", () -> transactionTemplate.executeWithoutResult(
+            s -> historyWriter.write(HistoryEntity.deposit("bench@test.com", 100))));
+    }
+
+    private void run(String name, Runnable operation) {
+        var operations = new AtomicLong();
+        var deadline = System.currentTimeMillis() + DURATION_MS;
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            for (var t = 0; t < THREADS; t++) {
+                executor.submit(() -> {
+                    while (System.currentTimeMillis() < deadline) {
+                        operation.run();
+                        operations.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        log.info("{}: ops/s={}", name, operations.get() * 1000 / DURATION_MS);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package org.eam.tinybank.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import org.eam.tinybank.config.properties.JournalProperties;
+import org.eam.tinybank.journal.JournalRecord.Type;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that records are appended across segments, replayed into balances, and that appending continues after a
+ * restart, overwriting a torn record, and that appending fails when fsync is stopped.
+ */
+class JournalTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldReplayBalancesFromRolledSegments() throws IOException {
+        var journal = journal();
+        journal.append(Type.CREATE, "a@test.com", null, 0);
+        journal.append(Type.CREATE, "b@test.com", null, 0);
+        var appends = IntStream.range(0, 100)
+            .mapToObj(i -> CompletableFuture.runAsync(() -> journal.append(Type.DEPOSIT, "a@test.com", null, 100)))
+            .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(appends).join();
+        journal.append(Type.WITHDRAW, "a@test.com", null, 1_000);
+        journal.append(Type.TRANSFER, "a@test.com", "b@test.com", 3_000);
+        journal.close();
+
+        assertTrue(JournalSegments.list(directory).size() > 1);
+        assertEquals(Map.of("a@test.com", 6_000L, "b@test.com", 3_000L), JournalReplay.balances(directory));
+        var sequences = new ArrayList<Long>();
+        JournalReplay.records(directory, r -> sequences.add(r.sequence()));
+        assertEquals(IntStream.rangeClosed(1, 104).mapToObj(i -> (long) i).toList(), sequences);
+    }
+
+    @Test
+    void shouldContinueAfterTornRecord() throws IOException {
+        var journal = journal();
+        journal.append(Type.DEPOSIT, "a@test.com", null, 100);
+        journal.append(Type.DEPOSIT, "a@test.com", null, 200);
+        journal.close();
+        tearLastRecord();
+        assertEquals(Map.of("a@test.com", 100L), JournalReplay.balances(directory));
+
+        var reopened = journal();
+        assertEquals(2, reopened.append(Type.DEPOSIT, "a@test.com", null, 300));
+        reopened.close();
+
+        assertEquals(Map.of("a@test.com", 400L), JournalReplay.balances(directory));
+    }
+
+    @Test
+    void shouldFailWhenFsyncIsStopped() throws IOException {
+        var journal = journal();
+        journal.append(Type.DEPOSIT, "a@test.com", null, 100);
+        journal.close();
+
+        assertThrows(IllegalStateException.class, () -> journal.append(Type.DEPOSIT, "a@test.com", null, 200));
+    }
+
+    private Journal journal() throws IOException {
+        var properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setSegmentSizeBytes(1024);
+        properties.setFsyncIntervalMs(1);
+        return new Journal(properties);
+    }
+
+    /**
+     * Corrupts the amount of the second record, as if it was partially written.
+     */
+    private void tearLastRecord() throws IOException {
+        var segment = JournalSegments.list(directory).getLast();
+        var buffer = JournalSegments.read(segment, r -> {
+        });
+        var second = buffer.position() / 2;
+        try (var channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), second + 25);
+        }
+    }
+
+}
\ No newline at end of file
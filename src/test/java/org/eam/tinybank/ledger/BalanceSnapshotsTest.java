@@ -0,0 +1,67 @@
+package org.eam.tinybank.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests that balance is read from the snapshot updated by the last operation, not from the database, until the
+ * snapshot becomes stale, and that a snapshot committed late after invalidation is not stored. The database is changed
+ * directly, as if by another instance.
+ */
+@SpringBootTest(properties = "account.snapshot.max-staleness-ms=500")
+class BalanceSnapshotsTest {
+
+    @Autowired
+    private Ledger ledger;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private BalanceSnapshots snapshots;
+
+    @Test
+    void shouldServeBalanceFromSnapshotUntilStale() throws InterruptedException {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+        ledger.create(email);
+        ledger.deposit(email, 10_000);
+        ledger.withdraw(email, 3_000);
+
+        transactionTemplate.executeWithoutResult(s -> accountRepository.updateBalance(email, 0));
+        assertEquals(ApiResponse.balance(7_000), ledger.balance(email));
+
+        Thread.sleep(600);
+        assertEquals(ApiResponse.balance(0), ledger.balance(email));
+    }
+
+    @Test
+    void shouldNotStoreSnapshotCommittedAfterInvalidation() {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+        ledger.create(email);
+        ledger.deposit(email, 10_000);
+        var version = accountRepository.findStoredBalance(email).orElseThrow().getVersion();
+
+        snapshots.invalidated(email, version);
+        snapshots.committed(email, 5_000, version);
+        snapshots.committed(email, 4_000, version - 1);
+        assertEquals(ApiResponse.balance(10_000), ledger.balance(email));
+
+        transactionTemplate.executeWithoutResult(s -> accountRepository.updateBalance(email, 0));
+        assertEquals(ApiResponse.balance(10_000), ledger.balance(email));
+    }
+
+    @Test
+    void shouldNotFindMissingAccount() {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+
+        assertEquals(ApiResponse.accountNotFound(email), ledger.balance(email));
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+package org.eam.tinybank.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.List;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.BatchItem;
+import org.eam.tinybank.api.BatchRequest;
+import org.eam.tinybank.api.CreateAccountRequest;
+import org.eam.tinybank.api.CreateUserRequest;
+import org.eam.tinybank.api.DepositRequest;
+import org.eam.tinybank.api.TransferRequest;
+import org.eam.tinybank.api.WithdrawRequest;
+import org.eam.tinybank.config.properties.LedgerProperties;
+import org.eam.tinybank.config.properties.LedgerProperties.Recovery;
+import org.eam.tinybank.repository.AccountRepository;
+import org.eam.tinybank.repository.HistoryRepository;
+import org.eam.tinybank.service.AccountService;
+import org.eam.tinybank.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests that in-memory ledger applies operations immediately, persists them behind, restores balances from history,
+ * and releases reservations when the write-behind queue is stopped.
+ */
+@SpringBootTest
+@ActiveProfiles("ledger")
+class InMemoryLedgerTest {
+
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private Ledger ledger;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private HistoryRepository historyRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private LedgerProperties properties;
+
+    @Test
+    void shouldApplyOperationsAndPersistBehind() {
+        var email1 = createdAccount();
+        var email2 = createdAccount();
+
+        assertEquals(ApiResponse.deposited(10_000),
+                     accountService.deposit(new DepositRequest(email1, BigDecimal.valueOf(100))));
+        assertEquals(ApiResponse.withdrawed(7_000),
+                     accountService.withdraw(new WithdrawRequest(email1, BigDecimal.valueOf(30))));
+        assertEquals(ApiResponse.insufficientFunds(email1),
+                     accountService.withdraw(new WithdrawRequest(email1, BigDecimal.valueOf(70))));
+        assertEquals(ApiResponse.transferred(email1, email2),
+                     accountService.transfer(new TransferRequest(email1, email2, BigDecimal.valueOf(20))));
+        assertEquals(ApiResponse.balance(5_000), accountService.balance(email1));
+
+        ledger.flush();
+        assertEquals(5_000, storedBalance(email1));
+        assertEquals(2_000, storedBalance(email2));
+        assertEquals(3, historyRepository.findAllByEmail(email1).size());
+        assertEquals(1, historyRepository.findAllByEmail(email2).size());
+    }
+
+    @Test
+    void shouldApplyAtomicBatch() {
+        var email1 = createdAccount();
+        var email2 = createdAccount();
+        var items = List.of(BatchItem.of(new DepositRequest(email1, BigDecimal.valueOf(100))),
+                            BatchItem.of(new TransferRequest(email1, email2, BigDecimal.valueOf(30))),
+                            BatchItem.of(new WithdrawRequest(email2, BigDecimal.valueOf(10))));
+
+        assertEquals(ApiResponse.batchApplied(3, 0), accountService.batch(new BatchRequest(items, null)).result());
+        var rejected = List.of(BatchItem.of(new WithdrawRequest(email2, BigDecimal.valueOf(10))),
+                               BatchItem.of(new TransferRequest(email1, email2, BigDecimal.valueOf(100))));
+        assertEquals(ApiResponse.batchRejected(1), accountService.batch(new BatchRequest(rejected, null)).result());
+
+        ledger.flush();
+        assertEquals(7_000, storedBalance(email1));
+        assertEquals(2_000, storedBalance(email2));
+        assertEquals(2, historyRepository.findAllByEmail(email1).size());
+        assertEquals(2, historyRepository.findAllByEmail(email2).size());
+    }
+
+    @Test
+    void shouldRecoverBalancesFromHistory() {
+        var email = createdAccount();
+        accountService.deposit(new DepositRequest(email, BigDecimal.valueOf(100)));
+        accountService.withdraw(new WithdrawRequest(email, BigDecimal.valueOf(40)));
+        ledger.flush();
+        transactionTemplate.executeWithoutResult(s -> accountRepository.updateBalance(email, 0));
+
+        var recoveryProperties = new LedgerProperties();
+        recoveryProperties.setShards(2);
+        recoveryProperties.setBatchSize(properties.getBatchSize());
+        recoveryProperties.setFlushIntervalMs(properties.getFlushIntervalMs());
+        recoveryProperties.setRecovery(Recovery.HISTORY);
+        var recovered = new InMemoryLedger(accountRepository, historyRepository, transactionTemplate,
+                                           recoveryProperties);
+        try {
+            recovered.load();
+
+            assertEquals(6_000, storedBalance(email));
+            assertEquals(ApiResponse.withdrawed(5_900), recovered.withdraw(email, 100));
+        } finally {
+            recovered.close();
+        }
+    }
+
+    @Test
+    void shouldReleaseReservationsWhenQueueIsStopped() {
+        var stoppingProperties = new LedgerProperties();
+        stoppingProperties.setShards(2);
+        stoppingProperties.setBatchSize(properties.getBatchSize());
+        stoppingProperties.setFlushIntervalMs(properties.getFlushIntervalMs());
+        stoppingProperties.setMaxAttempts(1);
+        stoppingProperties.setRecovery(Recovery.SNAPSHOT);
+        var stopping = new InMemoryLedger(accountRepository, historyRepository, transactionTemplate,
+                                          stoppingProperties);
+        try {
+            stopping.load();
+            var email1 = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+            var email2 = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+            stopping.create(email1);
+            stopping.create(email2);
+            stopping.deposit(email1, 10_000);
+            stopping.flush();
+            transactionTemplate.executeWithoutResult(s -> accountRepository.updateBalance(email1, 0));
+            stopping.withdraw(email1, 1_000);
+            assertThrows(IllegalStateException.class, stopping::flush);
+
+            assertThrows(IllegalStateException.class, () -> stopping.transfer(email1, email2, 1_000));
+            var items = List.of(BatchItem.of(new TransferRequest(email1, email2, BigDecimal.TEN)));
+            assertThrows(IllegalStateException.class, () -> stopping.batch(items, true));
+            assertEquals(ApiResponse.balance(9_000), stopping.balance(email1));
+            assertEquals(ApiResponse.balance(0), stopping.balance(email2));
+        } finally {
+            stopping.close();
+        }
+    }
+
+    private String createdAccount() {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+        userService.create(new CreateUserRequest("test", "test", email));
+        accountService.create(new CreateAccountRequest(email));
+        return email;
+    }
+
+    private long storedBalance(String email) {
+        return accountRepository.findById(email).orElseThrow().getBalance();
+    }
+
+}
\ No newline at end of file
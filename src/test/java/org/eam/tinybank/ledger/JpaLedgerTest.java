@@ -0,0 +1,43 @@
+package org.eam.tinybank.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.repository.HistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Tests that conditional updates return stored balances, and tell insufficient funds apart from a missing account.
+ */
+@SpringBootTest(properties = "account.locking.strategy=CONDITIONAL_UPDATE")
+class JpaLedgerTest {
+
+    @Autowired
+    private Ledger ledger;
+    @Autowired
+    private HistoryRepository historyRepository;
+
+    @Test
+    void shouldApplyConditionalUpdates() {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+        ledger.create(email);
+
+        assertEquals(ApiResponse.deposited(10_000), ledger.deposit(email, 10_000));
+        assertEquals(ApiResponse.withdrawed(7_000), ledger.withdraw(email, 3_000));
+        assertEquals(ApiResponse.insufficientFunds(email), ledger.withdraw(email, 7_000));
+        assertEquals(ApiResponse.balance(7_000), ledger.balance(email));
+        assertEquals(2, historyRepository.findAllByEmail(email).size());
+    }
+
+    @Test
+    void shouldNotFindMissingAccount() {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+
+        assertEquals(ApiResponse.accountNotFound(email), ledger.deposit(email, 1_000));
+        assertEquals(ApiResponse.accountNotFound(email), ledger.withdraw(email, 1_000));
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package org.eam.tinybank.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.config.properties.AccountProperties;
+import org.eam.tinybank.repository.AccountRepository;
+import org.eam.tinybank.repository.HistoryWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compares locking strategies under a skewed load, where most operations hit a few hot accounts, and reports
+ * throughput and p99 latency for each strategy. Total balance is checked after each run, since deposits and
+ * withdrawals are of the same amount and are applied in pairs, so lost updates would show up.
+ * <p>
+ * Example for H2 store, 16 threads, 10s per strategy:
+ * PESSIMISTIC_READ: ops/s=323, p99Ms=354; PESSIMISTIC_WRITE: ops/s=766, p99Ms=128; OPTIMISTIC: ops/s=736, p99Ms=206;
+ * CONDITIONAL_UPDATE: ops/s=689, p99Ms=149 (embedded H2 has no network round-trips to save)
+ */
+@SpringBootTest
+@Log4j2
+class LockingStrategyBenchmarkIT {
+
+    private static final int THREADS = 16;
+    private static final int ACCOUNTS = 100;
+    private static final int HOT_ACCOUNTS = 2;
+    private static final double HOT_RATIO = 0.8;
+    private static final long DURATION_MS = 10_000;
+
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private HistoryWriter historyWriter;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private BalanceSnapshots snapshots;
+    @Autowired
+    private StripedAccounts stripes;
+    @Autowired
+    private GroupCommit groupCommit;
+
+    @Test
+    void shouldCompareStrategies() {
+        for (var strategy : LockingStrategy.values()) {
+            run(strategy);
+        }
+    }
+
+    @SneakyThrows
+    private void run(LockingStrategy strategy) {
+        var properties = new AccountProperties();
+        properties.getLocking().setStrategy(strategy);
+        properties.getLocking().setMaxAttempts(20);
+        var ledger = new JpaLedger(accountRepository, historyWriter, transactionTemplate, properties, snapshots,
+                                   stripes, groupCommit);
+        var emails = createdAccounts(ledger);
+
+        var latencies = new ConcurrentLinkedQueue<Long>();
+        var failures = new AtomicLong();
+        var deadline = System.currentTimeMillis() + DURATION_MS;
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            for (var t = 0; t < THREADS; t++) {
+                executor.submit(() -> {
+                    while (System.currentTimeMillis() < deadline) {
+                        var email = skewed(emails);
+                        var start = System.nanoTime();
+                        try {
+                            ledger.deposit(email, 1_000);
+                            ledger.withdraw(email, 1_000);
+                            latencies.add(System.nanoTime() - start);
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+
+        var sorted = new ArrayList<>(latencies);
+        sorted.sort(null);
+        var p99 = sorted.isEmpty() ? 0 : sorted.get((int) (sorted.size() * 0.99));
+        log.info("Strategy {}: ops/s={}, p99Ms={}, failed={}", strategy,
+                 sorted.size() * 2 * 1000 / DURATION_MS, TimeUnit.NANOSECONDS.toMillis(p99), failures.get());
+        var total = emails.stream()
+            .mapToLong(e -> accountRepository.findById(e).orElseThrow().getBalance())
+            .sum();
+        assertEquals(100_000L * ACCOUNTS, total);
+    }
+
+    private List<String> createdAccounts(JpaLedger ledger) {
+        var emails = new ArrayList<String>();
+        for (var i = 0; i < ACCOUNTS; i++) {
+            var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+            ledger.create(email);
+            ledger.deposit(email, 100_000);
+            emails.add(email);
+        }
+        return emails;
+    }
+
+    private static String skewed(List<String> emails) {
+        var random = ThreadLocalRandom.current();
+        return random.nextDouble() < HOT_RATIO
+            ? emails.get(random.nextInt(HOT_ACCOUNTS))
+            : emails.get(random.nextInt(HOT_ACCOUNTS, emails.size()));
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package org.eam.tinybank.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.config.properties.AccountProperties;
+import org.eam.tinybank.repository.AccountRepository;
+import org.eam.tinybank.repository.AccountSlotRepository;
+import org.eam.tinybank.repository.HistoryWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Measures deposit throughput of a single hot account with different slot counts, where one slot means a regular
+ * account, so all deposits wait for the same row lock. Total balance is checked after each run.
+ * <p>
+ * Example for H2 store, 16 threads, 10s per slot count, on a single CPU: slots=1: ops/s=176; slots=2: ops/s=305;
+ * slots=4: ops/s=695; slots=8: ops/s=816; slots=16: ops/s=974
+ */
+@SpringBootTest
+@Log4j2
+class StripedAccountBenchmarkIT {
+
+    private static final int THREADS = 16;
+    private static final int[] SLOTS = {1, 2, 4, 8, 16};
+    private static final long DURATION_MS = 10_000;
+
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private AccountSlotRepository slotRepository;
+    @Autowired
+    private HistoryWriter historyWriter;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private BalanceSnapshots snapshots;
+    @Autowired
+    private GroupCommit groupCommit;
+
+    @Test
+    void shouldScaleDepositsWithSlots() {
+        for (var slots : SLOTS) {
+            run(slots);
+        }
+    }
+
+    private void run(int slots) {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+        var properties = new AccountProperties();
+        properties.getLocking().setStrategy(LockingStrategy.PESSIMISTIC_WRITE);
+        properties.getStriping().setSlots(slots);
+        properties.getStriping().setAccounts(Set.of(email));
+        var ledger = new JpaLedger(accountRepository, historyWriter, transactionTemplate, properties, snapshots,
+                                   new StripedAccounts(slotRepository, properties), groupCommit);
+        ledger.create(email);
+
+        var deposits = new AtomicLong();
+        var deadline = System.currentTimeMillis() + DURATION_MS;
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            for (var t = 0; t < THREADS; t++) {
+                executor.submit(() -> {
+                    while (System.currentTimeMillis() < deadline) {
+                        ledger.deposit(email, 100);
+                        deposits.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        log.info("Slots {}: ops/s={}", slots, deposits.get() * 1000 / DURATION_MS);
+        var total = accountRepository.findById(email).orElseThrow().getBalance() + slotRepository.sumBalance(email);
+        assertEquals(deposits.get() * 100, total);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package org.eam.tinybank.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.repository.AccountSlotRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Tests that concurrent deposits to a striped account are spread over slots, and that withdrawals see the whole
+ * balance, consolidated into the account row.
+ */
+@SpringBootTest(properties = {"account.striping.slots=4", "account.striping.accounts=merchant@test.com"})
+class StripedAccountsTest {
+
+    private static final String EMAIL = "merchant@test.com";
+
+    @Autowired
+    private Ledger ledger;
+    @Autowired
+    private AccountSlotRepository slotRepository;
+
+    @Test
+    void shouldDepositToSlotsAndWithdrawWholeBalance() {
+        ledger.create(EMAIL);
+
+        var deposits = IntStream.range(0, 100)
+            .mapToObj(i -> CompletableFuture.runAsync(() -> ledger.deposit(EMAIL, 100)))
+            .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(deposits).join();
+        assertEquals(10_000, slotRepository.sumBalance(EMAIL));
+        assertEquals(ApiResponse.balance(10_000), ledger.balance(EMAIL));
+
+        assertEquals(ApiResponse.withdrawed(50), ledger.withdraw(EMAIL, 9_950));
+        assertEquals(0, slotRepository.sumBalance(EMAIL));
+        assertEquals(ApiResponse.insufficientFunds(EMAIL), ledger.withdraw(EMAIL, 50));
+        assertEquals(ApiResponse.balance(50), ledger.balance(EMAIL));
+    }
+
+}
\ No newline at end of file
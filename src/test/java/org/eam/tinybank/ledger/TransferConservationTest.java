@@ -0,0 +1,104 @@
+package org.eam.tinybank.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.api.ResponseDetails;
+import org.eam.tinybank.config.properties.LedgerProperties;
+import org.eam.tinybank.config.properties.LedgerProperties.Execution;
+import org.eam.tinybank.config.properties.LedgerProperties.Recovery;
+import org.eam.tinybank.repository.AccountRepository;
+import org.eam.tinybank.repository.HistoryRepository;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs concurrent random transfers on in-memory ledger, including transfers beyond balance and to missing accounts,
+ * and checks that total money is conserved, no balance is negative, and persisted balances match both memory and
+ * history.
+ */
+@SpringBootTest
+class TransferConservationTest {
+
+    private static final int ACCOUNTS = 20;
+    private static final long INITIAL = 10_000;
+    private static final int THREADS = 16;
+    private static final int TRANSFERS = 300;
+
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private HistoryRepository historyRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @ParameterizedTest
+    @EnumSource(Execution.class)
+    void shouldConserveMoney(Execution execution) {
+        var properties = new LedgerProperties();
+        properties.setShards(4);
+        properties.setBatchSize(100);
+        properties.setFlushIntervalMs(5);
+        properties.setRecovery(Recovery.SNAPSHOT);
+        properties.setExecution(execution);
+        var ledger = new InMemoryLedger(accountRepository, historyRepository, transactionTemplate, properties);
+        try {
+            var emails = IntStream.range(0, ACCOUNTS)
+                .mapToObj(i -> RandomStringUtils.randomAlphabetic(10) + "@test.com")
+                .toList();
+            emails.forEach(e -> {
+                ledger.create(e);
+                ledger.deposit(e, INITIAL);
+            });
+
+            transferConcurrently(ledger, emails);
+
+            var balances = emails.stream().map(e -> balance(ledger, e)).toList();
+            balances.forEach(b -> assertTrue(b >= 0, "Negative balance: " + b));
+            assertEquals(ACCOUNTS * INITIAL, balances.stream().mapToLong(Long::longValue).sum());
+
+            ledger.flush();
+            for (var i = 0; i < ACCOUNTS; i++) {
+                assertEquals(balances.get(i), accountRepository.findById(emails.get(i)).orElseThrow().getBalance());
+                assertEquals(balances.get(i), historyBalance(emails.get(i)));
+            }
+        } finally {
+            ledger.close();
+        }
+    }
+
+    private void transferConcurrently(InMemoryLedger ledger, List<String> emails) {
+        var missing = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var t = 0; t < THREADS; t++) {
+                executor.submit(() -> {
+                    var random = ThreadLocalRandom.current();
+                    for (var i = 0; i < TRANSFERS; i++) {
+                        var from = emails.get(random.nextInt(ACCOUNTS));
+                        var to = random.nextInt(20) == 0 ? missing : emails.get(random.nextInt(ACCOUNTS));
+                        ledger.transfer(from, to, random.nextLong(1, INITIAL / 2));
+                    }
+                });
+            }
+        }
+    }
+
+    private static long balance(Ledger ledger, String email) {
+        return ledger.balance(email).details() instanceof ResponseDetails.Balance(var balance) ? balance : -1;
+    }
+
+    private long historyBalance(String email) {
+        return historyRepository.findAllByEmail(email).stream()
+            .mapToLong(h -> h.getType().credit() ? h.getAmount() : -h.getAmount())
+            .sum();
+    }
+
+}
\ No newline at end of file
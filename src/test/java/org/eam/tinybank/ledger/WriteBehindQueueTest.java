@@ -0,0 +1,47 @@
+package org.eam.tinybank.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.domain.AccountEntity;
+import org.eam.tinybank.domain.HistoryEntity;
+import org.eam.tinybank.repository.AccountRepository;
+import org.eam.tinybank.repository.HistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests that a batch failing on every attempt stops the queue, so flushing and enqueueing fail instead of waiting, and
+ * nothing of the batch is stored.
+ */
+@SpringBootTest
+class WriteBehindQueueTest {
+
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private HistoryRepository historyRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void shouldStopAfterMaxAttempts() {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+        accountRepository.save(AccountEntity.from(email));
+        var queue = new WriteBehindQueue(accountRepository, historyRepository, transactionTemplate, 10, 5, 3);
+        try {
+            queue.enqueue(HistoryEntity.deposit(email, 1_000), HistoryEntity.withdraw(email, 5_000));
+
+            assertThrows(IllegalStateException.class, queue::flush);
+            assertThrows(IllegalStateException.class, () -> queue.enqueue(HistoryEntity.deposit(email, 1_000)));
+            assertEquals(0, accountRepository.findUnlocked(email).orElseThrow().getBalance());
+            assertEquals(0, historyRepository.findAllByEmail(email).size());
+        } finally {
+            queue.close();
+        }
+    }
+
+}
\ No newline at end of file
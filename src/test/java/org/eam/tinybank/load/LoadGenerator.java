@@ -0,0 +1,153 @@
+package org.eam.tinybank.load;
+
+import static org.eam.tinybank.util.Jackson.MAPPER;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.log4j.Log4j2;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.eam.tinybank.api.DepositRequest;
+import org.eam.tinybank.api.TransferRequest;
+import org.eam.tinybank.api.WithdrawRequest;
+import org.eam.tinybank.config.properties.ThroughputTestProperties;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Sends a weighted mix of account operations at a fixed rate, picking accounts with Zipfian distribution, so a few of
+ * them are hot. Requests are started on their own virtual threads at intended times, regardless of responses to the
+ * previous ones (open model), and latency is measured from the intended start time, so a stalled service is not hidden
+ * by the generator waiting for it, i.e. coordinated omission is corrected.
+ */
+@Log4j2
+public class LoadGenerator {
+
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    private final URI baseUri;
+    private final List<String> emails;
+    private final ThroughputTestProperties properties;
+    private final WeightedMix mix;
+    private final ZipfianDistribution accounts;
+    private final HttpClient client;
+    private final Histogram total = histogram();
+    private final Map<Operation, Histogram> operations = new EnumMap<>(Operation.class);
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public LoadGenerator(URI baseUri, List<String> emails, ThroughputTestProperties properties) {
+        this.baseUri = baseUri;
+        this.emails = emails;
+        this.properties = properties;
+        this.mix = new WeightedMix(properties.getMix());
+        this.accounts = new ZipfianDistribution(emails.size(), properties.getZipfExponent());
+        this.client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        for (var operation : Operation.values()) {
+            operations.put(operation, histogram());
+        }
+    }
+
+    /**
+     * Sends requests for configured duration, and waits for all responses.
+     */
+    public LoadReport run() {
+        var count = (long) properties.getRequestsPerSecond() * properties.getDurationInSeconds();
+        var interval = TimeUnit.SECONDS.toNanos(1) / properties.getRequestsPerSecond();
+        log.info("Generating load: requests={}, requestsPerSecond={}, mix={}, zipfExponent={}", count,
+                 properties.getRequestsPerSecond(), properties.getMix(), properties.getZipfExponent());
+
+        var start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var i = 0L; i < count; i++) {
+                var intended = start + i * interval;
+                for (var wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                var operation = mix.next(ThreadLocalRandom.current());
+                executor.execute(() -> call(operation, intended));
+                if ((i + 1) % (properties.getRequestsPerSecond() * 10L) == 0) {
+                    log.info("Sent: count={}, completed={}", i + 1, total.getTotalCount());
+                }
+            }
+        }
+
+        return new LoadReport(total, operations, rejected.get(), errors.get());
+    }
+
+    private void call(Operation operation, long intended) {
+        try {
+            var response = client.send(request(operation), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == HttpStatus.BAD_REQUEST.value()) {
+                rejected.incrementAndGet();
+            } else if (response.statusCode() != HttpStatus.OK.value()) {
+                errors.incrementAndGet();
+            }
+        } catch (IOException e) {
+            log.warn("Request failed: operation={}", operation, e);
+            errors.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        var latency = Math.min(System.nanoTime() - intended, HIGHEST_LATENCY);
+        total.recordValue(latency);
+        operations.get(operation).recordValue(latency);
+    }
+
+    private HttpRequest request(Operation operation) throws IOException {
+        var email = account();
+        return switch (operation) {
+            case DEPOSIT -> post("deposit", new DepositRequest(email, amount()));
+            case WITHDRAW -> post("withdraw", new WithdrawRequest(email, amount()));
+            case TRANSFER -> post("transfer", new TransferRequest(email, otherAccount(email), amount()));
+            case BALANCE -> get("balance?email=" + email);
+            case HISTORY -> get("history?limit=20&email=" + email);
+        };
+    }
+
+    private String account() {
+        return emails.get(accounts.next(ThreadLocalRandom.current()));
+    }
+
+    private String otherAccount(String email) {
+        var other = account();
+        while (other.equals(email)) {
+            other = emails.get(ThreadLocalRandom.current().nextInt(emails.size()));
+        }
+        return other;
+    }
+
+    private static BigDecimal amount() {
+        return BigDecimal.valueOf(ThreadLocalRandom.current().nextDouble(1, 100)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private HttpRequest post(String path, Object body) throws IOException {
+        return HttpRequest.newBuilder(baseUri.resolve("/api/account/" + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+            .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve("/api/account/" + path)).GET().build();
+    }
+
+    private static Histogram histogram() {
+        return new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+    }
+
+}
\ No newline at end of file
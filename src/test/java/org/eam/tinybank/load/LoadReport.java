@@ -0,0 +1,46 @@
+package org.eam.tinybank.load;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies of a load run, measured from intended start times in nanoseconds, per operation and in total, along with
+ * counts of rejected requests, e.g. insufficient funds, and errors.
+ */
+public record LoadReport(Histogram total, Map<Operation, Histogram> operations, long rejected, long errors) {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    public double meanMs() {
+        return toMs(total.getMean());
+    }
+
+    public double percentileMs(double percentile) {
+        return toMs(total.getValueAtPercentile(percentile));
+    }
+
+    /**
+     * Formats count, mean, percentiles and max in milliseconds, in total and per operation.
+     */
+    public String summary() {
+        var summary = new StringBuilder("rejected=%s, errors=%s%n".formatted(rejected, errors));
+        summary.append(line("TOTAL", total));
+        operations.forEach((operation, histogram) -> summary.append(line(operation.name(), histogram)));
+        return summary.toString();
+    }
+
+    private static String line(String name, Histogram histogram) {
+        var line = new StringBuilder("%-8s count=%s, meanMs=%.2f".formatted(name, histogram.getTotalCount(),
+                                                                          toMs(histogram.getMean())));
+        for (var percentile : PERCENTILES) {
+            line.append(", p%sMs=%.2f".formatted(percentile, toMs(histogram.getValueAtPercentile(percentile))));
+        }
+        return line.append(", maxMs=%.2f%n".formatted(toMs(histogram.getMaxValue()))).toString();
+    }
+
+    private static double toMs(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
\ No newline at end of file
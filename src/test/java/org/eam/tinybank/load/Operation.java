@@ -0,0 +1,14 @@
+package org.eam.tinybank.load;
+
+/**
+ * Account operations generated by {@link LoadGenerator}, with relative weights configured per operation.
+ */
+public enum Operation {
+
+    DEPOSIT,
+    WITHDRAW,
+    TRANSFER,
+    BALANCE,
+    HISTORY
+
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package org.eam.tinybank.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks operations with probability proportional to their weights. Operations with zero weight are never picked.
+ */
+public class WeightedMix {
+
+    private final List<Operation> operations = new ArrayList<>();
+    private final List<Integer> cumulative = new ArrayList<>();
+    private int total;
+
+    public WeightedMix(Map<Operation, Integer> weights) {
+        weights.forEach((operation, weight) -> {
+            if (weight > 0) {
+                total += weight;
+                operations.add(operation);
+                cumulative.add(total);
+            }
+        });
+        if (total == 0) {
+            throw new IllegalArgumentException("At least one operation must have positive weight: " + weights);
+        }
+    }
+
+    public Operation next(RandomGenerator random) {
+        var value = random.nextInt(total);
+        var index = 0;
+        while (cumulative.get(index) <= value) {
+            index++;
+        }
+        return operations.get(index);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package org.eam.tinybank.load;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks ranks from {@code 0} to {@code size - 1} with probability proportional to {@code 1 / (rank + 1)^exponent}, so
+ * a few low ranks are hot, and the rest form a long tail. Zero exponent gives uniform distribution.
+ */
+public class ZipfianDistribution {
+
+    private final double[] cumulative;
+
+    public ZipfianDistribution(int size, double exponent) {
+        cumulative = new double[size];
+        var sum = 0.0;
+        for (var rank = 0; rank < size; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (var rank = 0; rank < size; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    public int next(RandomGenerator random) {
+        var index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package org.eam.tinybank.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.api.HistoryEvent;
+import org.eam.tinybank.domain.OperationType;
+import org.eam.tinybank.ledger.Ledger;
+import org.eam.tinybank.repository.HistoryRepository;
+import org.eam.tinybank.repository.OutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Tests that history events are stored in the outbox with balance changes, published to sinks in order, projected to
+ * history, and removed from the outbox.
+ */
+@SpringBootTest(properties = {"history.outbox.enabled=true", "history.outbox.poll-interval-ms=10"})
+class OutboxRelayTest {
+
+    @Autowired
+    private Ledger ledger;
+    @Autowired
+    private InMemoryOutboxSink sink;
+    @Autowired
+    private HistoryRepository historyRepository;
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Test
+    void shouldPublishAndProjectHistoryEvents() throws InterruptedException {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+        ledger.create(email);
+        ledger.deposit(email, 10_000);
+        ledger.withdraw(email, 3_000);
+
+        var events = new ArrayList<HistoryEvent>();
+        while (events.size() < 2) {
+            var event = sink.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event);
+            if (event.email().equals(email)) {
+                events.add(event);
+            }
+        }
+
+        assertEquals(List.of(OperationType.DEPOSIT, OperationType.WITHDRAW),
+                     events.stream().map(HistoryEvent::type).toList());
+        assertEquals(List.of(10_000L, 3_000L), events.stream().map(HistoryEvent::amount).toList());
+        assertEquals(2, historyRepository.findAllByEmail(email).size());
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @TestConfiguration
+    static class SinkConfiguration {
+
+        @Bean
+        InMemoryOutboxSink inMemoryOutboxSink() {
+            return new InMemoryOutboxSink(1_000);
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package org.eam.tinybank.reactive;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+
+import java.math.BigDecimal;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.api.CreateAccountRequest;
+import org.eam.tinybank.api.CreateUserRequest;
+import org.eam.tinybank.api.DepositRequest;
+import org.eam.tinybank.api.HistoryEntry;
+import org.eam.tinybank.api.TransferRequest;
+import org.eam.tinybank.api.WithdrawRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Tests reactive endpoints and their outcomes against H2, shared by JDBC, which migrates the schema, and R2DBC.
+ * Responses are checked by their messages, so the compatibility format is used.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1",
+    "reactive.url=r2dbc:h2:mem:///reactive;DB_CLOSE_DELAY=-1", "api.response-format=MESSAGE"})
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+class ReactiveAccountControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void shouldApplyOperationsAndStreamHistory() {
+        var email1 = createdAccount();
+        var email2 = createdAccount();
+
+        post("deposit", new DepositRequest(email1, BigDecimal.valueOf(100)))
+            .expectStatus().isOk()
+            .expectBody(String.class).value(containsString("Account was deposited: balance=100"));
+        post("withdraw", new WithdrawRequest(email1, BigDecimal.valueOf(100)))
+            .expectStatus().isBadRequest()
+            .expectBody(String.class).value(containsString("Insufficient funds: " + email1));
+        post("transfer", new TransferRequest(email1, email2, BigDecimal.valueOf(30)))
+            .expectStatus().isOk()
+            .expectBody(String.class).value(containsString("Funds transferred"));
+        post("transfer", new TransferRequest(email1, "missing@test.com", BigDecimal.ONE))
+            .expectStatus().isBadRequest()
+            .expectBody(String.class).value(containsString("User not found: email=missing@test.com"));
+
+        client.get().uri("/api/account/balance?email=" + email2).exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).value(containsString("Balance: 30"));
+        client.get().uri("/api/account/history?limit=1&email=" + email1).exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).value(containsString("description=Deposit: 100"))
+            .value(containsString("cursor="));
+
+        var streamed = client.get().uri("/api/account/history/stream?email=" + email1)
+            .accept(APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(HistoryEntry.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+        assertEquals(2, streamed.size());
+        assertEquals("Transfer to " + email2, streamed.getLast().description());
+    }
+
+    @Test
+    void shouldDeclineOperationsOfDeactivatedUser() {
+        var email = createdAccount();
+        client.patch().uri("/api/user/deactivate?email=" + email).exchange()
+            .expectStatus().isOk();
+
+        post("deposit", new DepositRequest(email, BigDecimal.TEN))
+            .expectStatus().isBadRequest()
+            .expectBody(String.class).value(containsString("User is inactive"));
+        client.get().uri("/api/account/history/stream?email=" + email).exchange()
+            .expectStatus().isBadRequest()
+            .expectBody(String.class).value(containsString("User is inactive"));
+    }
+
+    private String createdAccount() {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+        client.post().uri("/api/user/create").contentType(APPLICATION_JSON)
+            .bodyValue(new CreateUserRequest("test", "test", email))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).value(containsString("User was created"));
+        post("create", new CreateAccountRequest(email))
+            .expectStatus().isOk()
+            .expectBody(String.class).value(containsString("Account was created"));
+        return email;
+    }
+
+    private WebTestClient.ResponseSpec post(String path, Object request) {
+        return client.post().uri("/api/account/" + path).contentType(APPLICATION_JSON).bodyValue(request).exchange();
+    }
+
+}
\ No newline at end of file
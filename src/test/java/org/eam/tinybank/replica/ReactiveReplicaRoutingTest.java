@@ -0,0 +1,126 @@
+package org.eam.tinybank.replica;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.math.BigDecimal;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.api.CreateAccountRequest;
+import org.eam.tinybank.api.CreateUserRequest;
+import org.eam.tinybank.api.DepositRequest;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Tests routing of reactive balance and history reads, the same way as {@link ReplicaRoutingTest} does for JPA, with
+ * the replica in a second in-memory H2 database, reached both with JDBC by the monitor, and with R2DBC.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:reactive-primary;DB_CLOSE_DELAY=-1",
+    "reactive.url=r2dbc:h2:mem:///reactive-primary;DB_CLOSE_DELAY=-1", "replica.enabled=true",
+    "replica.url=" + ReactiveReplicaRoutingTest.REPLICA_URL,
+    "replica.r2dbc-url=r2dbc:h2:mem:///reactive-replica;DB_CLOSE_DELAY=-1", "replica.username=sa",
+    "replica.password=", "replica.max-lag-ms=500", "replica.check-interval-ms=50", "api.response-format=MESSAGE"})
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+class ReactiveReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:reactive-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private WebTestClient client;
+    @Autowired
+    private ReplicaMonitor monitor;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    private final ScheduledExecutorService replication = Executors.newSingleThreadScheduledExecutor();
+
+    @BeforeEach
+    void setUp() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").locations("classpath:db/migration").load().migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        replication.shutdownNow();
+    }
+
+    @Test
+    void shouldReadFromReplicaWhileUpToDate() {
+        var email = accountWithStaleCopy();
+        startReplication();
+        await(monitor::usable);
+
+        get("balance", email).value(containsString("Balance: 50"));
+        get("history", email).value(containsString("History: []"));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaLags() {
+        var email = accountWithStaleCopy();
+        await(() -> !monitor.usable());
+
+        get("balance", email).value(containsString("Balance: 100"));
+        get("history", email).value(containsString("description=Deposit: 100"));
+    }
+
+    /**
+     * Creates an account with balance of 100 on the primary, and copies it to the replica with balance of 50.
+     */
+    private String accountWithStaleCopy() {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+        post("/api/user/create", new CreateUserRequest("test", "test", email));
+        post("/api/account/create", new CreateAccountRequest(email));
+        post("/api/account/deposit", new DepositRequest(email, BigDecimal.valueOf(100)));
+
+        replica.update("insert into account_entity (email, balance, version) values (?, 5000, 0)", email);
+        return email;
+    }
+
+    private void post(String uri, Object request) {
+        client.post().uri(uri).contentType(APPLICATION_JSON).bodyValue(request).exchange()
+            .expectStatus().isOk();
+    }
+
+    private WebTestClient.BodySpec<String, ?> get(String endpoint, String email) {
+        return client.get().uri("/api/account/" + endpoint + "?email=" + email).exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class);
+    }
+
+    private void startReplication() {
+        var primary = new JdbcTemplate(primaryDataSource);
+        replication.scheduleWithFixedDelay(() -> replica.update(
+            "update replica_heartbeat set timestamp = ? where id = 1",
+            primary.queryForObject("select timestamp from replica_heartbeat where id = 1", Long.class)),
+                                           0, 10, TimeUnit.MILLISECONDS);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        var deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition was not met in time");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+package org.eam.tinybank.replica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.CreateAccountRequest;
+import org.eam.tinybank.api.CreateUserRequest;
+import org.eam.tinybank.api.DepositRequest;
+import org.eam.tinybank.api.ResponseDetails;
+import org.eam.tinybank.service.AccountService;
+import org.eam.tinybank.service.UserService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Tests routing of read-only transactions with a second in-memory H2 database standing in for the replica. The replica
+ * gets a stale copy of the account, and replication is simulated by copying the heartbeat, so balance and history
+ * show where they were read from.
+ */
+@SpringBootTest(properties = {"replica.enabled=true", "replica.url=jdbc:h2:mem:replica", "replica.username=sa",
+    "replica.password=", "replica.max-lag-ms=500", "replica.check-interval-ms=50", "account.snapshot.enabled=false"})
+class ReplicaRoutingTest {
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica";
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private ReplicaMonitor monitor;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    private final ScheduledExecutorService replication = Executors.newSingleThreadScheduledExecutor();
+
+    @BeforeEach
+    void setUp() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").locations("classpath:db/migration").load().migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        replication.shutdownNow();
+    }
+
+    @Test
+    void shouldReadFromReplicaWhileUpToDate() {
+        var email = accountWithStaleCopy();
+        startReplication();
+        await(monitor::usable);
+
+        assertEquals(ApiResponse.balance(5_000), accountService.balance(email));
+        assertEquals(ApiResponse.history(List.of()), accountService.history(email));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaLags() {
+        var email = accountWithStaleCopy();
+        await(() -> !monitor.usable());
+
+        assertEquals(ApiResponse.balance(10_000), accountService.balance(email));
+        assertEquals(1, historySize(email));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaIsDown() {
+        var email = accountWithStaleCopy();
+        startReplication();
+        await(monitor::usable);
+
+        var start = System.currentTimeMillis();
+        replica.execute("shutdown");
+        await(() -> !monitor.usable());
+        assertTrue(System.currentTimeMillis() - start < 500, "Replica should be unusable before it lags");
+
+        assertEquals(ApiResponse.balance(10_000), accountService.balance(email));
+        assertEquals(1, historySize(email));
+    }
+
+    /**
+     * Creates an account with balance of 100 on the primary, and copies it to the replica with balance of 50.
+     */
+    private String accountWithStaleCopy() {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+        userService.create(new CreateUserRequest("test", "test", email));
+        accountService.create(new CreateAccountRequest(email));
+        accountService.deposit(new DepositRequest(email, BigDecimal.valueOf(100)));
+
+        replica.update("insert into user_entity (email, firstname, lastname, status) values (?, 'test', 'test', ?)",
+                       email, "ACTIVATED");
+        replica.update("insert into account_entity (email, balance, version) values (?, 5000, 0)", email);
+        return email;
+    }
+
+    private void startReplication() {
+        var primary = new JdbcTemplate(primaryDataSource);
+        replication.scheduleWithFixedDelay(() -> replica.update(
+            "update replica_heartbeat set timestamp = ? where id = 1",
+            primary.queryForObject("select timestamp from replica_heartbeat where id = 1", Long.class)),
+                                           0, 10, TimeUnit.MILLISECONDS);
+    }
+
+    private int historySize(String email) {
+        return accountService.history(email).details() instanceof ResponseDetails.History(var entries, var cursor)
+            ? entries.size()
+            : -1;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        var deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition was not met in time");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+}
\ No newline at end of file
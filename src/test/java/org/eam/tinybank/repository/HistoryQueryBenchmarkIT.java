@@ -0,0 +1,77 @@
+package org.eam.tinybank.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.log4j.Log4j2;
+import org.HdrHistogram.Histogram;
+import org.eam.tinybank.domain.OperationType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Measures latency of history page reads of random accounts with and without the history index, for the table sizes
+ * given with 'benchmark.rows' system property, e.g. -Dbenchmark.rows=1000000,10000000. Every account has 100 rows.
+ * <p>
+ * Example for H2 store, 200 reads per run, on a single CPU: rows=1000000: indexed: p50=9.4ms, p99=22.0ms; full scan:
+ * p50=110.8ms, p99=229.1ms
+ */
+@SpringBootTest
+@Log4j2
+class HistoryQueryBenchmarkIT {
+
+    private static final int ROWS_PER_ACCOUNT = 100;
+    private static final int READS = 200;
+    private static final int BATCH = 10_000;
+
+    @Autowired
+    private HistoryRepository historyRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldCompareIndexedAndFullScanReads() {
+        var sizes = Arrays.stream(System.getProperty("benchmark.rows", "1000000").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+        for (var rows : sizes) {
+            insert(rows);
+            measure(rows, "indexed");
+            jdbcTemplate.execute("drop index history_email_timestamp_id");
+            measure(rows, "full scan");
+            jdbcTemplate.execute("create index history_email_timestamp_id on history_entity (email, timestamp, id)");
+            jdbcTemplate.execute("delete from history_entity");
+        }
+    }
+
+    private void insert(int rows) {
+        var start = System.currentTimeMillis();
+        var batch = new ArrayList<Object[]>(BATCH);
+        for (var id = 1; id <= rows; id++) {
+            batch.add(new Object[]{id, "bench-" + id % (rows / ROWS_PER_ACCOUNT) + "@test.com", start + id, "Deposit",
+                OperationType.DEPOSIT.ordinal(), 100});
+            if (batch.size() == BATCH || id == rows) {
+                jdbcTemplate.batchUpdate("insert into history_entity (id, email, timestamp, description, type, amount) "
+                                             + "values (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        log.info("Inserted {} rows in {}ms", rows, System.currentTimeMillis() - start);
+    }
+
+    private void measure(int rows, String name) {
+        var histogram = new Histogram(3);
+        for (var i = 0; i < READS; i++) {
+            var email = "bench-" + ThreadLocalRandom.current().nextInt(rows / ROWS_PER_ACCOUNT) + "@test.com";
+            var start = System.nanoTime();
+            historyRepository.findPage(email, Long.MIN_VALUE, Long.MIN_VALUE, 0, Long.MAX_VALUE, Limit.of(20));
+            histogram.recordValue((System.nanoTime() - start) / 1_000);
+        }
+        log.info("rows={}: {}: p50={}ms, p99={}ms", rows, name, histogram.getValueAtPercentile(50) / 1_000.0,
+                 histogram.getValueAtPercentile(99) / 1_000.0);
+    }
+
+}
\ No newline at end of file
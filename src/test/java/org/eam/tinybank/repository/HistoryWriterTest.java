@@ -0,0 +1,79 @@
+package org.eam.tinybank.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.domain.HistoryEntity;
+import org.eam.tinybank.ledger.Ledger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests that group commit inserts entries of concurrent requests together, with their balance changes, and that
+ * entries are inserted in caller transaction before commit, and not at all when it's rolled back.
+ */
+@SpringBootTest(properties = {"history.batch.enabled=true", "history.batch.size=2", "history.batch.window-ms=5000"})
+class HistoryWriterTest {
+
+    @Autowired
+    private HistoryWriter historyWriter;
+    @Autowired
+    private HistoryRepository historyRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private Ledger ledger;
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void shouldInsertEntriesOfConcurrentRequestsTogether() {
+        var emails = Stream.generate(() -> RandomStringUtils.randomAlphabetic(10) + "@test.com").limit(2).toList();
+        emails.forEach(ledger::create);
+        var inserted = registry.get("bank.history.batch").summary();
+        var batches = inserted.count();
+        var entries = inserted.totalAmount();
+
+        var deposits = emails.stream()
+            .map(email -> CompletableFuture.supplyAsync(() -> ledger.deposit(email, 1_000)))
+            .toList();
+
+        deposits.forEach(d -> assertEquals(ApiResponse.deposited(1_000), d.join()));
+        assertEquals(batches + 1, inserted.count());
+        assertEquals(entries + 2, inserted.totalAmount());
+        emails.forEach(email -> assertEquals(1, historyRepository.findAllByEmail(email).size()));
+    }
+
+    @Test
+    void shouldInsertEntriesOnCallerCommit() {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+
+        transactionTemplate.executeWithoutResult(s -> {
+            historyWriter.write(HistoryEntity.transferTo(email, "to@test.com", 1_000),
+                                HistoryEntity.receiveFrom("to@test.com", email, 1_000));
+            assertEquals(0, historyRepository.findAllByEmail(email).size());
+        });
+
+        assertEquals(1, historyRepository.findAllByEmail(email).size());
+    }
+
+    @Test
+    void shouldNotInsertEntriesOnCallerRollback() {
+        var email = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+
+        transactionTemplate.executeWithoutResult(s -> {
+            historyWriter.write(HistoryEntity.deposit(email, 1_000));
+            s.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(s -> historyWriter.write(HistoryEntity.withdraw(email, 1_000)));
+
+        assertEquals(1, historyRepository.findAllByEmail(email).size());
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package org.eam.tinybank.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import lombok.SneakyThrows;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.DepositRequest;
+import org.eam.tinybank.config.properties.AccountProperties;
+import org.eam.tinybank.config.properties.IdempotencyProperties;
+import org.eam.tinybank.ledger.Ledger;
+import org.eam.tinybank.repository.IdempotencyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests that an operation is applied once per key, both for concurrent requests and for retries answered from the
+ * database, when the response is no longer cached, and that an operation with a key claimed concurrently on another
+ * instance is rolled back.
+ */
+@SpringBootTest
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private IdempotencyRepository repository;
+    @Autowired
+    private IdempotencyProperties properties;
+    @Autowired
+    private MeterRegistry registry;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private AccountProperties accountProperties;
+    @Autowired
+    private Ledger ledger;
+
+    @Test
+    void shouldApplyConcurrentRequestsOnce() {
+        var key = RandomStringUtils.randomAlphanumeric(16);
+        var request = new DepositRequest("test@test.com", BigDecimal.TEN);
+        var applied = new AtomicInteger();
+
+        var responses = IntStream.range(0, 20)
+            .mapToObj(i -> CompletableFuture.supplyAsync(() -> idempotencyService.applied(key, request, () -> {
+                applied.incrementAndGet();
+                return ApiResponse.deposited(1_000);
+            })))
+            .toList()
+            .stream()
+            .map(CompletableFuture::join)
+            .toList();
+
+        assertEquals(1, applied.get());
+        responses.forEach(r -> assertEquals(ApiResponse.deposited(1_000), r));
+    }
+
+    @Test
+    void shouldReplayStoredResponseWithoutCache() {
+        var key = RandomStringUtils.randomAlphanumeric(16);
+        var request = new DepositRequest("test@test.com", BigDecimal.TEN);
+        idempotencyService.applied(key, request, () -> ApiResponse.insufficientFunds("test@test.com"));
+
+        var restarted = restarted();
+        var replayed = restarted.applied(key, request, () -> ApiResponse.deposited(1_000));
+
+        assertEquals(ApiResponse.insufficientFunds("test@test.com"), replayed);
+    }
+
+    @Test
+    void shouldRejectKeyReusedForAnotherRequest() {
+        var key = RandomStringUtils.randomAlphanumeric(16);
+        idempotencyService.applied(key, new DepositRequest("test@test.com", BigDecimal.TEN),
+                                   () -> ApiResponse.deposited(1_000));
+
+        var restarted = restarted();
+        var reused = restarted.applied(key, new DepositRequest("test@test.com", BigDecimal.ONE),
+                                       () -> ApiResponse.deposited(100));
+
+        assertEquals(ApiResponse.idempotencyKeyReused(key), reused);
+    }
+
+    @Test
+    void shouldRollBackOperationWithKeyClaimedConcurrently() {
+        var key = RandomStringUtils.randomAlphanumeric(16);
+        var request = new DepositRequest("test@test.com", BigDecimal.TEN);
+        var first = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+        var second = RandomStringUtils.randomAlphabetic(10) + "@test.com";
+        ledger.create(first);
+        ledger.create(second);
+
+        var applied = new CountDownLatch(1);
+        var claimed = new CountDownLatch(1);
+        var late = CompletableFuture.supplyAsync(() -> restarted().applied(key, request, () -> {
+            var response = ledger.deposit(first, 1_000);
+            applied.countDown();
+            await(claimed);
+            return response;
+        }));
+        await(applied);
+        var response = restarted().applied(key, request, () -> ledger.deposit(second, 2_000));
+        claimed.countDown();
+
+        assertEquals(ApiResponse.deposited(2_000), response);
+        assertEquals(ApiResponse.deposited(2_000), late.join());
+        assertEquals(ApiResponse.balance(0), ledger.balance(first));
+        assertEquals(ApiResponse.balance(2_000), ledger.balance(second));
+    }
+
+    private IdempotencyService restarted() {
+        return new IdempotencyService(repository, properties, transactionTemplate, accountProperties, registry);
+    }
+
+    @SneakyThrows
+    private static void await(CountDownLatch latch) {
+        latch.await();
+    }
+
+}
\ No newline at end of file
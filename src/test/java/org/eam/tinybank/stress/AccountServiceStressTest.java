@@ -0,0 +1,46 @@
+package org.eam.tinybank.stress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.log4j.Log4j2;
+import org.eam.tinybank.TinyBankApplication;
+import org.eam.tinybank.config.StressTestConfiguration;
+import org.eam.tinybank.config.properties.StressTestProperties;
+import org.eam.tinybank.service.AccountService;
+import org.eam.tinybank.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs a short stress of account operations with the default ledger and locking strategy on H2, and checks that no
+ * invariant is violated, and no operation fails on locks.
+ */
+@SpringBootTest(classes = {TinyBankApplication.class, StressTestConfiguration.class},
+    properties = "stress.duration-in-seconds=3")
+@Log4j2
+class AccountServiceStressTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private StressTestProperties properties;
+
+    @Test
+    void shouldKeepBalancesConsistent() {
+        var report = new StressRunner(userService, accountService, entityManager, properties).run();
+        log.info("Stress report:\n{}", report.summary());
+
+        assertEquals(0, report.violations().size(), report.summary());
+        assertEquals(0, report.lockFailures(), report.summary());
+        assertEquals(0, report.errors(), report.summary());
+        assertTrue(report.operations() > 0);
+    }
+
+}
\ No newline at end of file
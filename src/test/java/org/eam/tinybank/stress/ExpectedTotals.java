@@ -0,0 +1,55 @@
+package org.eam.tinybank.stress;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.eam.tinybank.api.ApiResponse;
+
+/**
+ * Counts money deposited and withdrawn independently of the database, both when an operation is started and when it
+ * has succeeded. So while operations are in flight, total balance is bounded by succeeded deposits less started
+ * withdrawals below, and by started deposits less succeeded withdrawals above. Transfers don't change the total.
+ */
+class ExpectedTotals {
+
+    private final AtomicLong startedDeposits = new AtomicLong();
+    private final AtomicLong succeededDeposits = new AtomicLong();
+    private final AtomicLong startedWithdrawals = new AtomicLong();
+    private final AtomicLong succeededWithdrawals = new AtomicLong();
+
+    ApiResponse deposited(long amount, Supplier<ApiResponse> deposit) {
+        return counted(amount, deposit, startedDeposits, succeededDeposits);
+    }
+
+    ApiResponse withdrawn(long amount, Supplier<ApiResponse> withdrawal) {
+        return counted(amount, withdrawal, startedWithdrawals, succeededWithdrawals);
+    }
+
+    /**
+     * Must be read before the balances, to bound them.
+     */
+    Counted succeeded() {
+        return new Counted(succeededDeposits.get(), succeededWithdrawals.get());
+    }
+
+    /**
+     * Must be read after the balances, to bound them.
+     */
+    Counted started() {
+        return new Counted(startedDeposits.get(), startedWithdrawals.get());
+    }
+
+    private static ApiResponse counted(long amount, Supplier<ApiResponse> operation, AtomicLong started,
+                                       AtomicLong succeeded) {
+        started.addAndGet(amount);
+        var response = operation.get();
+        if (!response.failed()) {
+            succeeded.addAndGet(amount);
+        }
+        return response;
+    }
+
+    record Counted(long deposits, long withdrawals) {
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package org.eam.tinybank.stress;
+
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.NonNull;
+import org.eam.tinybank.domain.OperationType;
+
+/**
+ * Reads balances and history of all accounts with the given email prefix in a single statement, so they come from the
+ * same snapshot even while operations are applied, and checks that total balance is within expected bounds, and that
+ * replayed history of every account matches its balance. Balance includes slots of striped accounts.
+ */
+class InvariantChecker {
+
+    private static final String QUERY = """
+        select a.email, a.balance
+            + (select coalesce(sum(s.balance), 0) from AccountSlotEntity s where s.email = a.email),
+            (select coalesce(sum(case when h.type in :credits then h.amount else -h.amount end), 0)
+                from HistoryEntity h where h.email = a.email)
+        from AccountEntity a where a.email like :prefix""";
+    private static final List<OperationType> CREDITS = List.of(OperationType.DEPOSIT, OperationType.RECEIVE_FROM);
+
+    private final EntityManager entityManager;
+    private final String prefix;
+
+    InvariantChecker(@NonNull EntityManager entityManager, @NonNull String prefix) {
+        this.entityManager = entityManager;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Returns descriptions of violated invariants, empty if there are none.
+     */
+    List<String> violations(@NonNull ExpectedTotals totals) {
+        var succeeded = totals.succeeded();
+        var accounts = accounts();
+        var started = totals.started();
+        var minTotal = succeeded.deposits() - started.withdrawals();
+        var maxTotal = started.deposits() - succeeded.withdrawals();
+
+        var violations = new ArrayList<String>();
+        var total = 0L;
+        for (var row : accounts) {
+            var email = (String) row[0];
+            var balance = ((Number) row[1]).longValue();
+            var replayed = ((Number) row[2]).longValue();
+            total += balance;
+            if (balance < 0) {
+                violations.add("Negative balance: email=%s, balance=%s".formatted(email, balance));
+            }
+            if (balance != replayed) {
+                violations.add("History doesn't match balance: email=%s, balance=%s, history=%s".formatted(
+                    email, balance, replayed));
+            }
+        }
+        if (total < minTotal || total > maxTotal) {
+            violations.add("Total balance out of bounds: total=%s, min=%s, max=%s".formatted(total, minTotal,
+                                                                                             maxTotal));
+        }
+        return violations;
+    }
+
+    private List<Object[]> accounts() {
+        return entityManager.createQuery(QUERY, Object[].class)
+            .setParameter("credits", CREDITS)
+            .setParameter("prefix", prefix + "%")
+            .getResultList();
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package org.eam.tinybank.stress;
+
+import java.util.List;
+import java.util.Map;
+import org.eam.tinybank.load.Operation;
+
+/**
+ * Outcome of a stress run: completed operations per type, of which rejected ones, e.g. insufficient funds, operations
+ * failed on locks after retries, other errors, and violated invariants found by the checks.
+ */
+public record StressReport(long durationMs, Map<Operation, Long> completed, long rejected, long lockFailures,
+                           long errors, long checks, List<String> violations) {
+
+    public long operations() {
+        return completed.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public double opsPerSecond() {
+        return operations() * 1000.0 / durationMs;
+    }
+
+    /**
+     * Formats throughput and counts, followed by all violations.
+     */
+    public String summary() {
+        var summary = new StringBuilder(
+            "operations=%s, opsPerSecond=%.1f, rejected=%s, lockFailures=%s, errors=%s, checks=%s, violations=%s%n"
+                .formatted(operations(), opsPerSecond(), rejected, lockFailures, errors, checks, violations.size()));
+        completed.forEach((operation, count) -> summary.append("%-8s count=%s%n".formatted(operation, count)));
+        violations.forEach(v -> summary.append(v).append(System.lineSeparator()));
+        return summary.toString();
+    }
+
+}
\ No newline at end of file
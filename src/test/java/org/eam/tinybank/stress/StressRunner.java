@@ -0,0 +1,201 @@
+package org.eam.tinybank.stress;
+
+import jakarta.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.eam.tinybank.api.ApiResponse;
+import org.eam.tinybank.api.CreateAccountRequest;
+import org.eam.tinybank.api.CreateUserRequest;
+import org.eam.tinybank.api.DepositRequest;
+import org.eam.tinybank.api.TransferRequest;
+import org.eam.tinybank.api.WithdrawRequest;
+import org.eam.tinybank.config.properties.StressTestProperties;
+import org.eam.tinybank.load.Operation;
+import org.eam.tinybank.load.WeightedMix;
+import org.eam.tinybank.service.AccountService;
+import org.eam.tinybank.service.UserService;
+import org.springframework.dao.ConcurrencyFailureException;
+
+/**
+ * Applies random operations to new accounts through {@link AccountService} from a fixed number of threads, each
+ * starting the next operation as soon as the previous one completes, while money deposited and withdrawn is counted
+ * with {@link ExpectedTotals}. Invariants are checked with {@link InvariantChecker} every check interval, and once more
+ * after all threads stop, when the total must be exact.
+ * <p>
+ * An operation failed with a concurrency failure after retries, e.g. a deadlock or lock timeout, is counted as a lock
+ * failure. An operation running longer than stall time is reported as a violation, with its stack trace and threads
+ * deadlocked in the JVM, if any.
+ */
+@Log4j2
+public class StressRunner {
+
+    private final UserService userService;
+    private final AccountService accountService;
+    private final StressTestProperties properties;
+    private final WeightedMix mix;
+    private final String prefix = "stress" + RandomStringUtils.randomAlphabetic(8).toLowerCase();
+    private final List<String> emails;
+    private final InvariantChecker checker;
+    private final ExpectedTotals totals = new ExpectedTotals();
+    private final Map<Operation, LongAdder> completed = new EnumMap<>(Operation.class);
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder lockFailures = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Set<String> violations = new LinkedHashSet<>();
+    private final AtomicLongArray operationStarts;
+    private final long[] reportedStalls;
+
+    public StressRunner(UserService userService, AccountService accountService, EntityManager entityManager,
+                        StressTestProperties properties) {
+        this.userService = userService;
+        this.accountService = accountService;
+        this.properties = properties;
+        this.mix = new WeightedMix(properties.getMix());
+        this.emails = IntStream.range(0, properties.getAccounts())
+            .mapToObj(i -> "%s%s@test.com".formatted(prefix, i))
+            .toList();
+        this.checker = new InvariantChecker(entityManager, prefix);
+        for (var operation : Operation.values()) {
+            completed.put(operation, new LongAdder());
+        }
+        this.operationStarts = new AtomicLongArray(properties.getThreads());
+        this.reportedStalls = new long[properties.getThreads()];
+    }
+
+    /**
+     * Creates accounts with initial balances, checked before the start, applies operations for configured duration,
+     * and waits for all threads, but not longer than twice the stall time after the end.
+     */
+    public StressReport run() {
+        createAccounts();
+        log.info("Stress started: accounts={}, threads={}, durationInSeconds={}, mix={}", emails.size(),
+                 properties.getThreads(), properties.getDurationInSeconds(), properties.getMix());
+
+        violations.addAll(checker.violations(totals));
+        var checks = 1L;
+
+        var start = System.nanoTime();
+        var deadline = start + TimeUnit.SECONDS.toNanos(properties.getDurationInSeconds());
+        var workers = IntStream.range(0, properties.getThreads())
+            .mapToObj(i -> Thread.ofPlatform().name("stress-", i).daemon().start(() -> work(i, deadline)))
+            .toList();
+        var giveUp = deadline + TimeUnit.MILLISECONDS.toNanos(properties.getStallMs() * 2);
+        while (workers.stream().anyMatch(Thread::isAlive) && System.nanoTime() < giveUp) {
+            violations.addAll(checker.violations(totals));
+            checks++;
+            stalls(workers);
+            sleep(properties.getCheckIntervalMs());
+        }
+        var durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        violations.addAll(checker.violations(totals));
+        var counts = new EnumMap<Operation, Long>(Operation.class);
+        completed.forEach((operation, count) -> counts.put(operation, count.sum()));
+        return new StressReport(durationMs, counts, rejected.sum(), lockFailures.sum(), errors.sum(), checks + 1,
+                                new ArrayList<>(violations));
+    }
+
+    private void createAccounts() {
+        for (var email : emails) {
+            userService.create(new CreateUserRequest("stress", "test", email));
+            accountService.create(new CreateAccountRequest(email));
+            totals.deposited(properties.getInitialBalance(), () -> accountService.deposit(
+                new DepositRequest(email, BigDecimal.valueOf(properties.getInitialBalance(), 2))));
+        }
+    }
+
+    private void work(int worker, long deadline) {
+        var random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            var operation = mix.next(random);
+            operationStarts.set(worker, System.nanoTime());
+            try {
+                if (applied(operation, random).failed()) {
+                    rejected.increment();
+                }
+                completed.get(operation).increment();
+            } catch (ConcurrencyFailureException e) {
+                log.warn("Lock failure: operation={}", operation, e);
+                lockFailures.increment();
+            } catch (RuntimeException e) {
+                log.error("Operation failed: operation={}", operation, e);
+                errors.increment();
+            } finally {
+                operationStarts.set(worker, 0);
+            }
+        }
+    }
+
+    private ApiResponse applied(Operation operation, ThreadLocalRandom random) {
+        var email = emails.get(random.nextInt(emails.size()));
+        var amount = random.nextLong(1, properties.getMaxAmount() + 1);
+        return switch (operation) {
+            case DEPOSIT -> totals.deposited(amount, () -> accountService.deposit(
+                new DepositRequest(email, BigDecimal.valueOf(amount, 2))));
+            case WITHDRAW -> totals.withdrawn(amount, () -> accountService.withdraw(
+                new WithdrawRequest(email, BigDecimal.valueOf(amount, 2))));
+            case TRANSFER -> accountService.transfer(
+                new TransferRequest(email, otherAccount(email, random), BigDecimal.valueOf(amount, 2)));
+            case BALANCE -> accountService.balance(email);
+            case HISTORY -> accountService.history(email);
+        };
+    }
+
+    private String otherAccount(String email, ThreadLocalRandom random) {
+        var other = email;
+        while (other.equals(email)) {
+            other = emails.get(random.nextInt(emails.size()));
+        }
+        return other;
+    }
+
+    /**
+     * Reports every operation running longer than stall time once.
+     */
+    private void stalls(List<Thread> workers) {
+        var now = System.nanoTime();
+        for (var i = 0; i < workers.size(); i++) {
+            var started = operationStarts.get(i);
+            if (started != 0 && started != reportedStalls[i]
+                && now - started > TimeUnit.MILLISECONDS.toNanos(properties.getStallMs())) {
+                reportedStalls[i] = started;
+                violations.add("Operation stalled: thread=%s, ms=%s, deadlocked=%s%n%s".formatted(
+                    workers.get(i).getName(), TimeUnit.NANOSECONDS.toMillis(now - started), deadlocked(),
+                    Arrays.stream(workers.get(i).getStackTrace())
+                        .map(e -> "    at " + e)
+                        .collect(Collectors.joining(System.lineSeparator()))));
+            }
+        }
+    }
+
+    private static List<String> deadlocked() {
+        var threads = ManagementFactory.getThreadMXBean();
+        var ids = threads.findDeadlockedThreads();
+        return ids == null
+            ? List.of()
+            : Arrays.stream(threads.getThreadInfo(ids)).map(ThreadInfo::getThreadName).toList();
+    }
+
+    @SneakyThrows
+    private static void sleep(long ms) {
+        Thread.sleep(ms);
+    }
+
+}
\ No newline at end of file